@@ -0,0 +1,63 @@
+package com.sekwah.advancedportals.benchmarks;
+
+import com.sekwah.advancedportals.benchmarks.stub.StubPlayer;
+import com.sekwah.advancedportals.core.portal.ActivationResult;
+import com.sekwah.advancedportals.core.portal.AdvancedPortal;
+import com.sekwah.advancedportals.core.services.PortalServices;
+import com.sekwah.advancedportals.core.warphandler.TriggerType;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Running a portal's tag handlers for a player that is allowed through and
+ * sent to a destination.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ActivationBenchmark {
+    @Param({"10", "10000"})
+    private int portalCount;
+
+    @Param({"64"})
+    private int playerCount;
+
+    private BenchmarkServer server;
+
+    private AdvancedPortal portal;
+
+    private StubPlayer[] players;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        server = new BenchmarkServer(portalCount);
+        portal = server.getInstance(PortalServices.class)
+                     .getPortal(BenchmarkServer.getPortalName(0));
+        players = server.createPlayers(
+            playerCount, BenchmarkServer.Distribution.INSIDE, 42);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Benchmark
+    public ActivationResult activate() {
+        StubPlayer player = players[next];
+        next = next + 1 == players.length ? 0 : next + 1;
+        return portal.activate(player, TriggerType.MOVEMENT);
+    }
+}
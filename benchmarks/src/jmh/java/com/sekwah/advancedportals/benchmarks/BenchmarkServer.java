@@ -0,0 +1,191 @@
+package com.sekwah.advancedportals.benchmarks;
+
+import com.google.inject.Injector;
+import com.sekwah.advancedportals.benchmarks.stub.StubPlayer;
+import com.sekwah.advancedportals.benchmarks.stub.StubServer;
+import com.sekwah.advancedportals.benchmarks.stub.StubWarpEffect;
+import com.sekwah.advancedportals.benchmarks.stub.StubWorld;
+import com.sekwah.advancedportals.core.AdvancedPortalsCore;
+import com.sekwah.advancedportals.core.connector.commands.CommandRegister;
+import com.sekwah.advancedportals.core.portal.AdvancedPortal;
+import com.sekwah.advancedportals.core.registry.TagRegistry;
+import com.sekwah.advancedportals.core.registry.WarpEffectRegistry;
+import com.sekwah.advancedportals.core.repository.IPortalRepository;
+import com.sekwah.advancedportals.core.serializeddata.BlockLocation;
+import com.sekwah.advancedportals.core.serializeddata.DataTag;
+import com.sekwah.advancedportals.core.serializeddata.PlayerLocation;
+import com.sekwah.advancedportals.core.services.DestinationServices;
+import com.sekwah.advancedportals.core.services.PlayerDataServices;
+import com.sekwah.advancedportals.core.tags.DestiTag;
+import com.sekwah.advancedportals.core.tags.NameTag;
+import com.sekwah.advancedportals.core.tags.TriggerBlockTag;
+import com.sekwah.advancedportals.core.util.InfoLogger;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * A core running against stub containers and a temporary data folder, with
+ * portals laid out one per chunk in a square grid.
+ *
+ * <p>Every portal is a 2x3 nether portal sending players to the "spawn"
+ * destination, and the stub world is made entirely of nether portal blocks.
+ */
+public class BenchmarkServer implements AutoCloseable {
+    public static final String WORLD = "world";
+
+    public static final String DESTINATION = "spawn";
+
+    private static final int PORTAL_SPACING = 16;
+
+    private static final int PORTAL_OFFSET = 4;
+
+    private static final int PORTAL_Y = 64;
+
+    /**
+     * Where players are placed relative to the portals.
+     */
+    public enum Distribution {
+        /** Anywhere in the area covered by portals, almost never in one. */
+        SCATTERED,
+        /** A few blocks from a portal, in the same chunk column. */
+        NEAR,
+        /** Standing in a portal. */
+        INSIDE
+    }
+
+    private final File dataFolder;
+
+    private final StubServer server;
+
+    private final AdvancedPortalsCore core;
+
+    private final Injector injector;
+
+    private final int portalCount;
+
+    private final int gridSize;
+
+    public BenchmarkServer(int portalCount) throws IOException {
+        this.portalCount = portalCount;
+        this.gridSize = (int) Math.ceil(Math.sqrt(Math.max(1, portalCount)));
+        this.dataFolder =
+            Files.createTempDirectory("advancedportals-benchmark").toFile();
+        this.server = new StubServer(new StubWorld("NETHER_PORTAL"));
+        this.core = new AdvancedPortalsCore("1.21.4", dataFolder,
+                                            new QuietLogger(), server);
+        CommandRegister commandRegister = (name, command) -> {};
+        core.getModule().addInstanceBinding(CommandRegister.class,
+                                            commandRegister);
+        this.injector = core.getModule().getInjector();
+        injector.getInstance(WarpEffectRegistry.class)
+            .registerEffect("ender", new StubWarpEffect());
+
+        writePortals();
+        core.onEnable();
+        injector.getInstance(DestinationServices.class)
+            .createDesti(new PlayerLocation(WORLD, 0.5, PORTAL_Y, 0.5),
+                         Collections.singletonList(new DataTag(
+                             NameTag.TAG_NAME, new String[] {DESTINATION})));
+    }
+
+    private void writePortals() {
+        IPortalRepository portalRepository =
+            injector.getInstance(IPortalRepository.class);
+        TagRegistry tagRegistry = injector.getInstance(TagRegistry.class);
+        PlayerDataServices playerDataServices =
+            injector.getInstance(PlayerDataServices.class);
+        for (int i = 0; i < portalCount; i++) {
+            BlockLocation min = getPortalMin(i);
+            BlockLocation max = new BlockLocation(
+                WORLD, min.getPosX() + 1, min.getPosY() + 2, min.getPosZ());
+            AdvancedPortal portal =
+                new AdvancedPortal(min, max, tagRegistry, playerDataServices);
+            String name = getPortalName(i);
+            portal.setArgValues(
+                new DataTag(NameTag.TAG_NAME, new String[] {name}));
+            portal.setArgValues(new DataTag(TriggerBlockTag.TAG_NAME,
+                                            new String[] {"NETHER_PORTAL"}));
+            portal.setArgValues(
+                new DataTag(DestiTag.TAG_NAME, new String[] {DESTINATION}));
+            portalRepository.save(name, portal);
+        }
+    }
+
+    public static String getPortalName(int index) {
+        return "portal" + index;
+    }
+
+    public BlockLocation getPortalMin(int index) {
+        return new BlockLocation(
+            WORLD, (index % gridSize) * PORTAL_SPACING + PORTAL_OFFSET,
+            PORTAL_Y, (index / gridSize) * PORTAL_SPACING + PORTAL_OFFSET);
+    }
+
+    /**
+     * Creates players with their player data already loaded.
+     */
+    public StubPlayer[] createPlayers(int count, Distribution distribution,
+                                      long seed) {
+        Random random = new Random(seed);
+        PlayerDataServices playerDataServices =
+            injector.getInstance(PlayerDataServices.class);
+        StubPlayer[] players = new StubPlayer[count];
+        for (int i = 0; i < count; i++) {
+            UUID uuid = new UUID(random.nextLong(), random.nextLong());
+            players[i] = new StubPlayer(
+                uuid, createLocation(distribution, random), server);
+            playerDataServices.getPlayerData(players[i]);
+        }
+        return players;
+    }
+
+    private PlayerLocation createLocation(Distribution distribution,
+                                          Random random) {
+        if (distribution == Distribution.SCATTERED || portalCount == 0) {
+            int area = gridSize * PORTAL_SPACING;
+            return new PlayerLocation(WORLD, random.nextDouble() * area,
+                                      PORTAL_Y, random.nextDouble() * area);
+        }
+        BlockLocation portal = getPortalMin(random.nextInt(portalCount));
+        double offsetZ = distribution == Distribution.NEAR ? 3.5 : 0.5;
+        return new PlayerLocation(WORLD, portal.getPosX() + 0.5, PORTAL_Y,
+                                  portal.getPosZ() + offsetZ);
+    }
+
+    public <T> T getInstance(Class<T> type) {
+        return injector.getInstance(type);
+    }
+
+    @Override
+    public void close() throws IOException {
+        core.onDisable();
+        try (Stream<Path> files = Files.walk(dataFolder.toPath())) {
+            files.sorted(Comparator.reverseOrder())
+                .map(Path::toFile)
+                .forEach(File::delete);
+        }
+    }
+
+    private static class QuietLogger extends InfoLogger {
+        @Override
+        public void warning(String s) {
+            System.err.println("[AdvancedPortals] " + s);
+        }
+
+        @Override
+        public void info(String s) {
+        }
+
+        @Override
+        public void error(Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.sekwah.advancedportals.benchmarks;
+
+import com.sekwah.advancedportals.benchmarks.stub.StubPlayer;
+import com.sekwah.advancedportals.core.metrics.Metrics;
+import com.sekwah.advancedportals.core.services.DestinationServices;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Teleporting to a destination, used by /desti tp and by players arriving
+ * from another server. Fails if any data file is read while it runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DestinationTeleportBenchmark {
+    private BenchmarkServer server;
+
+    private DestinationServices destinationServices;
+
+    private Metrics metrics;
+
+    private StubPlayer player;
+
+    private long loadsBefore;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        server = new BenchmarkServer(10);
+        destinationServices = server.getInstance(DestinationServices.class);
+        metrics = server.getInstance(Metrics.class);
+        player = server.createPlayers(
+            1, BenchmarkServer.Distribution.SCATTERED, 42)[0];
+    }
+
+    @Setup(Level.Iteration)
+    public void countLoads() {
+        loadsBefore = metrics.getStorageLoad().getCount();
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkNoLoads() {
+        long loads = metrics.getStorageLoad().getCount() - loadsBefore;
+        if (loads != 0) {
+            throw new IllegalStateException(
+                "Teleporting read " + loads + " files from disk");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Benchmark
+    public boolean teleportToDestination() {
+        return destinationServices.teleportToDestination(
+            BenchmarkServer.DESTINATION, player, false);
+    }
+}
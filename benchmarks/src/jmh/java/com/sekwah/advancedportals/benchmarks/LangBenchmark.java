@@ -0,0 +1,51 @@
+package com.sekwah.advancedportals.benchmarks;
+
+import com.sekwah.advancedportals.core.util.Lang;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Building the messages sent on activation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LangBenchmark {
+    private BenchmarkServer server;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        // Loads the language files
+        server = new BenchmarkServer(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Benchmark
+    public String translate() {
+        return Lang.translate("tag.conditions.fail");
+    }
+
+    @Benchmark
+    public String translateInsertVariables() {
+        return Lang.translateInsertVariables("portal.cooldown.join", 3,
+                                             Lang.translate("time.seconds"));
+    }
+
+    @Benchmark
+    public String convertColors() {
+        return Lang.convertColors("&aWelcome to &#ff8800the server&r!");
+    }
+}
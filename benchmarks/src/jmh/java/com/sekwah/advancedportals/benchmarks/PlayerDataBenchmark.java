@@ -0,0 +1,69 @@
+package com.sekwah.advancedportals.benchmarks;
+
+import com.sekwah.advancedportals.benchmarks.stub.StubPlayer;
+import com.sekwah.advancedportals.core.serializeddata.PlayerData;
+import com.sekwah.advancedportals.core.services.PlayerDataServices;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Many region threads looking up already loaded player data at once, as on
+ * a busy Folia server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(16)
+public class PlayerDataBenchmark {
+    @Param({"1024"})
+    private int playerCount;
+
+    private BenchmarkServer server;
+
+    private PlayerDataServices playerDataServices;
+
+    private StubPlayer[] players;
+
+    @State(Scope.Thread)
+    public static class PlayerCursor {
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            next = ThreadLocalRandom.current().nextInt(1 << 16);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        server = new BenchmarkServer(0);
+        playerDataServices = server.getInstance(PlayerDataServices.class);
+        players = server.createPlayers(
+            playerCount, BenchmarkServer.Distribution.SCATTERED, 42);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Benchmark
+    public PlayerData getPlayerData(PlayerCursor cursor) {
+        // The random start may be past the end, after that it just wraps
+        int index = Math.floorMod(cursor.next, players.length);
+        cursor.next = index + 1 == players.length ? 0 : index + 1;
+        return playerDataServices.getPlayerData(players[index]);
+    }
+}
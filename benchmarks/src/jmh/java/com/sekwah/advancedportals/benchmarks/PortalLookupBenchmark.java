@@ -0,0 +1,81 @@
+package com.sekwah.advancedportals.benchmarks;
+
+import com.sekwah.advancedportals.benchmarks.stub.StubPlayer;
+import com.sekwah.advancedportals.core.serializeddata.BlockLocation;
+import com.sekwah.advancedportals.core.services.PortalServices;
+import com.sekwah.advancedportals.core.warphandler.TriggerType;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Finding the portal a player is in, as done for every move that gets past
+ * the move gate and every protected block check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PortalLookupBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    private int portalCount;
+
+    @Param({"SCATTERED", "NEAR", "INSIDE"})
+    private BenchmarkServer.Distribution distribution;
+
+    @Param({"256"})
+    private int playerCount;
+
+    private BenchmarkServer server;
+
+    private PortalServices portalServices;
+
+    private StubPlayer[] players;
+
+    private BlockLocation[] blockLocations;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        server = new BenchmarkServer(portalCount);
+        portalServices = server.getInstance(PortalServices.class);
+        players = server.createPlayers(playerCount, distribution, 42);
+        blockLocations = new BlockLocation[players.length];
+        for (int i = 0; i < players.length; i++) {
+            blockLocations[i] = players[i].getBlockLoc();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = index + 1 == players.length ? 0 : index + 1;
+        return index;
+    }
+
+    @Benchmark
+    public PortalServices.PortalActivationResult checkPortalActivation() {
+        StubPlayer player = players[nextIndex()];
+        return portalServices.checkPortalActivation(player, player.getLoc(),
+                                                    TriggerType.MOVEMENT);
+    }
+
+    @Benchmark
+    public boolean inPortalRegionProtected() {
+        return portalServices.inPortalRegionProtected(
+            blockLocations[nextIndex()]);
+    }
+}
@@ -0,0 +1,45 @@
+package com.sekwah.advancedportals.benchmarks;
+
+import com.sekwah.advancedportals.core.serializeddata.DataTag;
+import com.sekwah.advancedportals.core.util.TagReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Parsing the tag arguments of a create command.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TagReaderBenchmark {
+    @Param({"simple", "quoted"})
+    private String args;
+
+    private String[] argArray;
+
+    @Setup
+    public void setup() {
+        if (args.equals("quoted")) {
+            argArray = new String[] {"name:test", "desti:spawn",
+                                     "message:\"Welcome", "to", "the",
+                                     "server\"", "command:\"say", "hi\"",
+                                     "triggerblock:NETHER_PORTAL,WATER"};
+        } else {
+            argArray = new String[] {"name:test", "desti:spawn",
+                                     "triggerblock:NETHER_PORTAL"};
+        }
+    }
+
+    @Benchmark
+    public List<DataTag> getTagsFromArgs() {
+        return TagReader.getTagsFromArgs(argArray);
+    }
+}
@@ -0,0 +1,121 @@
+package com.sekwah.advancedportals.benchmarks.stub;
+
+import com.sekwah.advancedportals.core.connector.containers.GameMode;
+import com.sekwah.advancedportals.core.connector.containers.PlayerContainer;
+import com.sekwah.advancedportals.core.connector.containers.ServerContainer;
+import com.sekwah.advancedportals.core.connector.containers.WorldContainer;
+import com.sekwah.advancedportals.core.serializeddata.BlockLocation;
+import com.sekwah.advancedportals.core.serializeddata.PlayerLocation;
+import com.sekwah.advancedportals.core.serializeddata.Vector;
+import java.awt.*;
+import java.util.UUID;
+
+/**
+ * A player standing still at a fixed location, anything sent to it is
+ * dropped.
+ */
+public class StubPlayer implements PlayerContainer {
+    private final UUID uuid;
+
+    private final PlayerLocation location;
+
+    private final ServerContainer server;
+
+    public StubPlayer(UUID uuid, PlayerLocation location,
+                      ServerContainer server) {
+        this.uuid = uuid;
+        this.location = location;
+        this.server = server;
+    }
+
+    @Override
+    public UUID getUUID() {
+        return uuid;
+    }
+
+    @Override
+    public void sendMessage(String message) {
+    }
+
+    @Override
+    public void sendActionBar(String message) {
+    }
+
+    @Override
+    public boolean isOp() {
+        return true;
+    }
+
+    @Override
+    public PlayerLocation getLoc() {
+        return location;
+    }
+
+    @Override
+    public double getHeight() {
+        return 1.8;
+    }
+
+    @Override
+    public BlockLocation getBlockLoc() {
+        return location.toBlockPos();
+    }
+
+    @Override
+    public boolean teleport(PlayerLocation location) {
+        return true;
+    }
+
+    @Override
+    public WorldContainer getWorld() {
+        return server.getWorld(location.getWorldName());
+    }
+
+    @Override
+    public String getName() {
+        return uuid.toString();
+    }
+
+    @Override
+    public String getWorldName() {
+        return location.getWorldName();
+    }
+
+    @Override
+    public void setVelocity(Vector vector) {
+    }
+
+    @Override
+    public boolean hasPermission(String permission) {
+        return true;
+    }
+
+    @Override
+    public void giveItem(String material, String itemName,
+                         String... itemDescription) {
+    }
+
+    @Override
+    public boolean sendPacket(String channel, byte[] bytes) {
+        return true;
+    }
+
+    @Override
+    public void playSound(String sound, float volume, float pitch) {
+    }
+
+    @Override
+    public ServerContainer getServer() {
+        return server;
+    }
+
+    @Override
+    public GameMode getGameMode() {
+        return GameMode.SURVIVAL;
+    }
+
+    @Override
+    public void spawnColoredDust(Vector pos, double xSpread, double ySpread,
+                                 double zSpread, int count, Color color) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.sekwah.advancedportals.benchmarks.stub;
+
+import com.sekwah.advancedportals.core.connector.containers.PlayerContainer;
+import com.sekwah.advancedportals.core.connector.containers.ServerContainer;
+import com.sekwah.advancedportals.core.connector.containers.WorldContainer;
+import com.sekwah.advancedportals.core.tags.CommandTag;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+public class StubServer implements ServerContainer {
+    private final WorldContainer world;
+
+    public StubServer(WorldContainer world) {
+        this.world = world;
+    }
+
+    @Override
+    public WorldContainer getWorld(String name) {
+        return world;
+    }
+
+    @Override
+    public PlayerContainer getPlayer(String name) {
+        return null;
+    }
+
+    @Override
+    public PlayerContainer getPlayer(UUID name) {
+        return null;
+    }
+
+    @Override
+    public List<String> getAllTriggerBlocks() {
+        return Collections.singletonList("NETHER_PORTAL");
+    }
+
+    @Override
+    public List<String> getCommonTriggerBlocks() {
+        return Collections.singletonList("NETHER_PORTAL");
+    }
+
+    @Override
+    public PlayerContainer[] getPlayers() {
+        return new PlayerContainer[0];
+    }
+
+    @Override
+    public void registerOutgoingChannel(String channel) {
+    }
+
+    @Override
+    public void registerIncomingChannel(String channel) {
+    }
+
+    @Override
+    public void dispatchCommand(UUID uuid, String command,
+                                CommandTag.CommandLevel commandLevel) {
+    }
+
+    @Override
+    public String matchMaterialName(String materialName) {
+        return materialName.toUpperCase();
+    }
+}
@@ -0,0 +1,18 @@
+package com.sekwah.advancedportals.benchmarks.stub;
+
+import com.sekwah.advancedportals.core.connector.containers.PlayerContainer;
+import com.sekwah.advancedportals.core.effect.WarpEffect;
+
+/**
+ * Stands in for the platform's warp effects.
+ */
+public class StubWarpEffect implements WarpEffect.Sound, WarpEffect.Visual {
+    @Override
+    public void onWarpSound(PlayerContainer player, Action action) {
+        player.playSound("entity.enderman.teleport", 1, 1);
+    }
+
+    @Override
+    public void onWarpVisual(PlayerContainer player, Action action) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.sekwah.advancedportals.benchmarks.stub;
+
+import com.sekwah.advancedportals.core.connector.containers.WorldContainer;
+import com.sekwah.advancedportals.core.data.BlockAxis;
+import com.sekwah.advancedportals.core.portal.AdvancedPortal;
+import com.sekwah.advancedportals.core.serializeddata.BlockLocation;
+
+/**
+ * A world filled entirely with one block, so every portal region is full of
+ * its trigger block.
+ */
+public class StubWorld implements WorldContainer {
+    private final String block;
+
+    public StubWorld(String block) {
+        this.block = block;
+    }
+
+    @Override
+    public void setBlock(BlockLocation location, String material) {
+    }
+
+    @Override
+    public String getBlock(BlockLocation location) {
+        return block;
+    }
+
+    @Override
+    public void disableBeacon(BlockLocation location) {
+    }
+
+    @Override
+    public BlockAxis getBlockAxis(BlockLocation location) {
+        return BlockAxis.X;
+    }
+
+    @Override
+    public void setBlockAxis(BlockLocation location, BlockAxis axis) {
+    }
+
+    @Override
+    public void disableBeacon(AdvancedPortal portal) {
+    }
+}
@@ -9,18 +9,22 @@ import com.sekwah.advancedportals.core.commands.subcommands.portal.*;
 import com.sekwah.advancedportals.core.connector.commands.CommandRegister;
 import com.sekwah.advancedportals.core.connector.containers.PlayerContainer;
 import com.sekwah.advancedportals.core.connector.containers.ServerContainer;
+import com.sekwah.advancedportals.core.metrics.MetricsExporter;
 import com.sekwah.advancedportals.core.module.AdvancedPortalsModule;
 import com.sekwah.advancedportals.core.permissions.Permissions;
 import com.sekwah.advancedportals.core.registry.TagRegistry;
 import com.sekwah.advancedportals.core.repository.ConfigRepository;
+import com.sekwah.advancedportals.core.serializeddata.BinarySnapshotStore;
 import com.sekwah.advancedportals.core.serializeddata.DataStorage;
 import com.sekwah.advancedportals.core.services.DestinationServices;
 import com.sekwah.advancedportals.core.services.PlayerDataServices;
 import com.sekwah.advancedportals.core.services.PortalServices;
+import com.sekwah.advancedportals.core.services.ReloadServices;
 import com.sekwah.advancedportals.core.tags.*;
 import com.sekwah.advancedportals.core.util.GameScheduler;
 import com.sekwah.advancedportals.core.util.InfoLogger;
 import com.sekwah.advancedportals.core.util.Lang;
+import com.sekwah.advancedportals.core.util.OutlineDisplay;
 import java.io.File;
 import java.util.Arrays;
 
@@ -64,6 +68,18 @@ public class AdvancedPortalsCore {
     @Inject
     private GameScheduler gameScheduler;
 
+    @Inject
+    private BinarySnapshotStore binarySnapshotStore;
+
+    @Inject
+    private ReloadServices reloadServices;
+
+    @Inject
+    private MetricsExporter metricsExporter;
+
+    @Inject
+    private OutlineDisplay outlineDisplay;
+
     public AdvancedPortalsCore(String mcVersion, File dataStorageLoc,
                                InfoLogger infoLogger,
                                ServerContainer serverContainer) {
@@ -115,6 +131,8 @@ public class AdvancedPortalsCore {
 
         this.portalServices.loadPortals();
         this.destinationServices.loadDestinations();
+        this.reloadServices.updateWatcher();
+        this.metricsExporter.updateSchedule();
         this.infoLogger.info(Lang.translate("logger.pluginenable"));
     }
 
@@ -178,6 +196,8 @@ public class AdvancedPortalsCore {
                                               new InfoPortalSubCommand());
         this.portalCommand.registerSubCommand("disablebeacon",
                                               new DisableBeaconSubCommand());
+        this.portalCommand.registerSubCommand("stats",
+                                              new StatsPortalSubCommand());
 
         commandRegister.registerCommand("portal", this.portalCommand);
     }
@@ -218,10 +238,17 @@ public class AdvancedPortalsCore {
     }
 
     public void onDisable() {
+        reloadServices.shutdown();
+        metricsExporter.shutdown();
+        outlineDisplay.clear();
         for (PlayerContainer playerContainer :
              this.serverContainer.getPlayers()) {
             playerDataRepository.playerLeave(playerContainer);
         }
+        playerDataRepository.drainPendingSaves();
+        portalServices.saveBinarySnapshot();
+        destinationServices.saveBinarySnapshot();
+        binarySnapshotStore.flush();
         this.infoLogger.info(Lang.translate("logger.plugindisable"));
     }
 
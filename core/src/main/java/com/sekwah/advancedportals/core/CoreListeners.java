@@ -8,6 +8,7 @@ import com.sekwah.advancedportals.core.connector.containers.PlayerContainer;
 import com.sekwah.advancedportals.core.connector.containers.WorldContainer;
 import com.sekwah.advancedportals.core.data.BlockAxis;
 import com.sekwah.advancedportals.core.data.Direction;
+import com.sekwah.advancedportals.core.metrics.Metrics;
 import com.sekwah.advancedportals.core.network.ServerDestiPacket;
 import com.sekwah.advancedportals.core.permissions.Permissions;
 import com.sekwah.advancedportals.core.repository.ConfigRepository;
@@ -15,12 +16,17 @@ import com.sekwah.advancedportals.core.serializeddata.BlockLocation;
 import com.sekwah.advancedportals.core.serializeddata.PlayerData;
 import com.sekwah.advancedportals.core.serializeddata.PlayerLocation;
 import com.sekwah.advancedportals.core.services.DestinationServices;
+import com.sekwah.advancedportals.core.services.PlaceholderCache;
 import com.sekwah.advancedportals.core.services.PlayerDataServices;
+import com.sekwah.advancedportals.core.services.PlayerMoveGate;
 import com.sekwah.advancedportals.core.services.PortalServices;
 import com.sekwah.advancedportals.core.util.GameScheduler;
 import com.sekwah.advancedportals.core.util.Lang;
+import com.sekwah.advancedportals.core.util.OutlineDisplay;
+import com.sekwah.advancedportals.core.util.PlayerTaskScheduler;
 import com.sekwah.advancedportals.core.warphandler.TriggerType;
 import java.util.Objects;
+import java.util.UUID;
 
 public class CoreListeners {
     @Inject
@@ -38,8 +44,39 @@ public class CoreListeners {
     @Inject
     private GameScheduler gameScheduler;
 
+    @Inject
+    private PlayerTaskScheduler playerTaskScheduler;
+
+    @Inject
+    private OutlineDisplay outlineDisplay;
+
+    @Inject
+    private PlayerMoveGate playerMoveGate;
+
+    @Inject
+    private PlaceholderCache placeholderCache;
+
+    @Inject
+    private Metrics metrics;
+
+    /**
+     * Called off the main thread once a player has been allowed to log in.
+     */
+    public void playerPreLogin(UUID uuid) {
+        this.playerDataServices.preloadPlayerData(uuid);
+    }
+
+    /**
+     * Called when a login that may have been preloaded is refused.
+     */
+    public void playerLoginDenied(UUID uuid) {
+        this.playerDataServices.loginDenied(uuid);
+    }
+
     public void playerJoin(PlayerContainer player) {
         this.playerDataServices.setJoinCooldown(player);
+        this.playerMoveGate.invalidate(player.getUUID());
+        this.playerTaskScheduler.playerJoin(player);
 
         this.setIfInPortal(player);
     }
@@ -58,14 +95,19 @@ public class CoreListeners {
 
     public void teleportEvent(PlayerContainer player) {
         this.playerDataServices.setJoinCooldown(player);
+        this.playerMoveGate.invalidate(player.getUUID());
     }
 
     public void playerLeave(PlayerContainer player) {
         this.playerDataServices.playerLeave(player);
+        this.playerMoveGate.playerLeave(player.getUUID());
+        this.placeholderCache.playerLeave(player.getUUID());
+        this.outlineDisplay.playerLeave(player);
     }
 
     public void incomingMessage(PlayerContainer player, String channel,
                                 byte[] message) {
+        this.metrics.getProxyMessagesReceived().increment();
         ByteArrayDataInput buffer = ByteStreams.newDataInput(message);
         String messageType = buffer.readUTF();
 
@@ -83,13 +125,29 @@ public class CoreListeners {
         this.gameScheduler.tick();
     }
 
+    /**
+     * Cheap pre-check so platforms can drop move events before building any
+     * containers for them.
+     *
+     * @param topBlockY y of the block at the top of the player
+     * @return if {@link #playerMove} needs to be called for this move
+     */
+    public boolean shouldCheckPlayerMove(UUID uuid, String worldName,
+                                         int blockX, int blockY, int blockZ,
+                                         int topBlockY) {
+        return this.playerMoveGate.shouldCheck(uuid, worldName, blockX, blockY,
+                                               blockZ, topBlockY);
+    }
+
     /**
      * @param player
      * @param toLoc
      */
     public void playerMove(PlayerContainer player, PlayerLocation toLoc) {
+        long start = System.nanoTime();
         this.portalServices.checkPortalActivation(player, toLoc,
                                                   TriggerType.MOVEMENT);
+        this.metrics.getPlayerMove().recordSince(start);
     }
 
     /**
@@ -104,6 +162,7 @@ public class CoreListeners {
     public boolean blockBreak(PlayerContainer player, BlockLocation blockPos,
                               String blockMaterial, String itemInHandMaterial,
                               String itemInHandName) {
+        this.portalServices.blockChanged(blockPos);
         if (!configRepository.getPortalProtection())
             return true;
 
@@ -128,6 +187,7 @@ public class CoreListeners {
     public boolean blockPlace(PlayerContainer player, BlockLocation blockPos,
                               String blockMaterial, String itemInHandMaterial,
                               String itemInHandName) {
+        this.portalServices.blockChanged(blockPos);
         if (player != null && Permissions.BUILD.hasPermission(player)) {
             WorldContainer world = player.getWorld();
             if (itemInHandName.equals("\u00A75Portal Block Placer")) {
@@ -215,6 +275,7 @@ public class CoreListeners {
 
     public void worldChange(PlayerContainer player) {
         this.playerDataServices.setJoinCooldown(player);
+        this.playerMoveGate.invalidate(player.getUUID());
         this.setIfInPortal(player);
     }
 
@@ -266,6 +327,7 @@ public class CoreListeners {
     }
 
     public boolean physicsEvent(BlockLocation blockLocation, String string) {
+        this.portalServices.blockChanged(blockLocation);
         return !configRepository.getDisablePhysicsEvents()
             || !portalServices.inPortalRegionProtected(blockLocation);
     }
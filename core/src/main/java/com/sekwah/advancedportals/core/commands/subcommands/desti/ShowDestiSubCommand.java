@@ -14,10 +14,14 @@ import com.sekwah.advancedportals.core.serializeddata.PlayerLocation;
 import com.sekwah.advancedportals.core.serializeddata.Vector;
 import com.sekwah.advancedportals.core.services.DestinationServices;
 import com.sekwah.advancedportals.core.services.PlayerDataServices;
-import com.sekwah.advancedportals.core.util.GameScheduler;
 import com.sekwah.advancedportals.core.util.Lang;
 import com.sekwah.advancedportals.core.util.Matrix;
+import com.sekwah.advancedportals.core.util.OutlineDisplay;
+import com.sekwah.advancedportals.core.util.ParticleShape;
+import com.sekwah.advancedportals.core.util.PlayerTaskScheduler;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -31,7 +35,7 @@ public class ShowDestiSubCommand
     PlayerDataServices tempDataServices;
 
     @Inject
-    GameScheduler gameScheduler;
+    PlayerTaskScheduler playerTaskScheduler;
 
     @Inject
     AdvancedPortalsCore core;
@@ -45,6 +49,9 @@ public class ShowDestiSubCommand
     @Inject
     ConfigRepository config;
 
+    @Inject
+    OutlineDisplay outlineDisplay;
+
     @Override
     public void onCommand(CommandSenderContainer sender, String[] args) {
         PlayerData tempData =
@@ -84,24 +91,43 @@ public class ShowDestiSubCommand
 
     @Override
     public void registered() {
-        gameScheduler.intervalTickEvent("show_portal", () -> {
-            for (PlayerContainer player : serverContainer.getPlayers()) {
-                PlayerData tempData = tempDataServices.getPlayerData(player);
-                if (!tempData.isDestiVisible()) {
-                    continue;
-                }
-
+        playerTaskScheduler.intervalPlayerTask("show_destination", player -> {
+            PlayerData tempData = tempDataServices.getPlayerData(player);
+            boolean useOutlines = config.getDisplayEntityOutlines()
+                && outlineDisplay.isAvailable();
+            List<OutlineDisplay.Outline> outlines =
+                useOutlines ? new ArrayList<>() : null;
+            if (tempData.isDestiVisible()) {
                 for (Destination destination :
                      destinationServices.getDestinations()) {
                     PlayerLocation pos = destination.getLoc();
-                    if (Objects.equals(pos.getWorldName(),
-                                       player.getWorldName())
-                        && pos.distanceTo(player.getLoc())
-                            < config.getShowVisibleRange()) {
-                        drawArrow(player, pos, new Color(255, 221, 0));
+                    if (!Objects.equals(pos.getWorldName(),
+                                        player.getWorldName())
+                        || pos.distanceTo(player.getLoc())
+                            >= config.getShowVisibleRange()) {
+                        continue;
+                    }
+                    if (useOutlines) {
+                        outlines.add(OutlineDisplay.Outline.label(
+                            destination.getName(),
+                            new PlayerLocation(pos.getWorldName(),
+                                               pos.getPosX(),
+                                               pos.getPosY() + 1.5,
+                                               pos.getPosZ()),
+                            destination.getName(), ARROW_COLOR));
+                    } else {
+                        player.drawShape(arrowShapes.get(destination, pos,
+                                                         () -> arrow(pos)),
+                                         0, ARROW_COLOR);
                     }
                 }
             }
+            if (outlineDisplay.isAvailable()) {
+                // Also clears them once hidden or switched back to particles
+                outlineDisplay.show(player, "destination",
+                                    useOutlines ? outlines
+                                                : Collections.emptyList());
+            }
         }, 1, 5);
     }
 
@@ -112,10 +138,20 @@ public class ShowDestiSubCommand
     Vector LEFT = new Vector(0.7, 0, 0.2);
     Vector RIGHT = new Vector(-0.7, 0, 0.2);
 
+    final Color ARROW_COLOR = new Color(255, 221, 0);
+
+    // Only rebuilt when a destination is moved
+    private final ParticleShape.Cache<Destination> arrowShapes =
+        new ParticleShape.Cache<>();
+
     public void drawArrow(PlayerContainer player, PlayerLocation playerLocation,
                           Color color) {
-        // Draw three lines to create an arrow, applying the yaw and pitch
-        // to the direction of the arrow
+        player.drawShape(arrow(playerLocation), 0, color);
+    }
+
+    private ParticleShape arrow(PlayerLocation playerLocation) {
+        // Three lines to create an arrow, applying the yaw and pitch to the
+        // direction of the arrow
         Matrix rotation = Matrix.identity()
                               .rotY(-playerLocation.getYaw())
                               .rotX(playerLocation.getPitch());
@@ -128,8 +164,10 @@ public class ShowDestiSubCommand
         Vector left = rotation.transform(LEFT).add(location);
         Vector right = rotation.transform(RIGHT).add(location);
 
-        player.drawLine(base, tip, color, 0.25f);
-        player.drawLine(tip, left, color, 0.25f);
-        player.drawLine(tip, right, color, 0.25f);
+        return new ParticleShape.Builder()
+            .line(base, tip, 0.25f)
+            .line(tip, left, 0.25f)
+            .line(tip, right, 0.25f)
+            .build();
     }
 }
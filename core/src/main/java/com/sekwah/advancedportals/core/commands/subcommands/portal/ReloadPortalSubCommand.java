@@ -1,37 +1,32 @@
 package com.sekwah.advancedportals.core.commands.subcommands.portal;
 
 import com.google.inject.Inject;
-import com.sekwah.advancedportals.core.AdvancedPortalsCore;
 import com.sekwah.advancedportals.core.commands.SubCommand;
 import com.sekwah.advancedportals.core.connector.containers.CommandSenderContainer;
 import com.sekwah.advancedportals.core.permissions.Permissions;
-import com.sekwah.advancedportals.core.repository.ConfigRepository;
-import com.sekwah.advancedportals.core.services.DestinationServices;
-import com.sekwah.advancedportals.core.services.PortalServices;
+import com.sekwah.advancedportals.core.services.ReloadServices;
 import com.sekwah.advancedportals.core.util.Lang;
 import java.util.List;
 
 public class ReloadPortalSubCommand implements SubCommand {
     @Inject
-    private AdvancedPortalsCore portalsCore;
-
-    @Inject
-    PortalServices portalServices;
-
-    @Inject
-    DestinationServices destinationServices;
-
-    @Inject
-    ConfigRepository configRepository;
+    ReloadServices reloadServices;
 
     @Override
     public void onCommand(CommandSenderContainer sender, String[] args) {
-        portalsCore.loadPortalConfig();
-        portalServices.loadPortals();
-        destinationServices.loadDestinations();
-        Lang.loadLanguage(configRepository.getTranslation());
-        sender.sendMessage(Lang.getPositivePrefix()
-                           + Lang.translate("command.reload.reloaded"));
+        boolean started = reloadServices.reloadAll(success -> {
+            if (success) {
+                sender.sendMessage(Lang.getPositivePrefix()
+                                   + Lang.translate("command.reload.reloaded"));
+            } else {
+                sender.sendMessage(Lang.getNegativePrefix()
+                                   + Lang.translate("command.reload.failed"));
+            }
+        });
+        if (!started) {
+            sender.sendMessage(Lang.getNegativePrefix()
+                               + Lang.translate("command.reload.inprogress"));
+        }
     }
 
     @Override
@@ -6,20 +6,21 @@ import com.sekwah.advancedportals.core.commands.SubCommand;
 import com.sekwah.advancedportals.core.connector.containers.CommandSenderContainer;
 import com.sekwah.advancedportals.core.connector.containers.PlayerContainer;
 import com.sekwah.advancedportals.core.connector.containers.ServerContainer;
-import com.sekwah.advancedportals.core.connector.containers.WorldContainer;
 import com.sekwah.advancedportals.core.permissions.Permissions;
 import com.sekwah.advancedportals.core.portal.AdvancedPortal;
 import com.sekwah.advancedportals.core.repository.ConfigRepository;
 import com.sekwah.advancedportals.core.serializeddata.BlockLocation;
 import com.sekwah.advancedportals.core.serializeddata.PlayerData;
-import com.sekwah.advancedportals.core.serializeddata.Vector;
 import com.sekwah.advancedportals.core.services.PlayerDataServices;
 import com.sekwah.advancedportals.core.services.PortalServices;
-import com.sekwah.advancedportals.core.util.GameScheduler;
 import com.sekwah.advancedportals.core.util.Lang;
+import com.sekwah.advancedportals.core.util.OutlineDisplay;
+import com.sekwah.advancedportals.core.util.ParticleShape;
+import com.sekwah.advancedportals.core.util.PlayerTaskScheduler;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * This will be different from the old show command and I believe it is 1.16+
@@ -27,13 +28,11 @@ import java.util.Objects;
  */
 public class ShowPortalSubCommand
     implements SubCommand, SubCommand.SubCommandOnInit {
-    boolean alternate_show_trigger = true;
-
     @Inject
     PlayerDataServices playerDataServices;
 
     @Inject
-    GameScheduler gameScheduler;
+    PlayerTaskScheduler playerTaskScheduler;
 
     @Inject
     AdvancedPortalsCore core;
@@ -47,6 +46,9 @@ public class ShowPortalSubCommand
     @Inject
     ConfigRepository config;
 
+    @Inject
+    OutlineDisplay outlineDisplay;
+
     final Color POS1_COLOR = new Color(0, 255, 0);
     final Color POS2_COLOR = new Color(255, 0, 0);
 
@@ -56,7 +58,26 @@ public class ShowPortalSubCommand
 
     final Color TRIGGER_COLOR = new Color(0, 0, 255, 100);
 
-    final Vector OFFSET = new Vector(0.5, 0.5, 0.5);
+    // Outlines are only rebuilt when the locations they're drawn from change
+    private final ParticleShape.Cache<AdvancedPortal> portalShapes =
+        new ParticleShape.Cache<>();
+    private final ParticleShape.Cache<AdvancedPortal> triggerShapes =
+        new ParticleShape.Cache<>();
+    private final ParticleShape.Cache<PlayerData> selectionShapes =
+        new ParticleShape.Cache<>();
+    private final ParticleShape.Cache<PlayerData> selectionOutlineShapes =
+        new ParticleShape.Cache<>();
+    private final ParticleShape.Cache<PlayerData> pos1Shapes =
+        new ParticleShape.Cache<>();
+    private final ParticleShape.Cache<PlayerData> pos2Shapes =
+        new ParticleShape.Cache<>();
+
+    private static final String OUTLINE_GROUP = "portal";
+
+    private static final int SHOW_INTERVAL_TICKS = 5;
+
+    private static final long SHOW_INTERVAL_NANOS =
+        SHOW_INTERVAL_TICKS * 50_000_000L;
 
     @Override
     public void onCommand(CommandSenderContainer sender, String[] args) {
@@ -96,142 +117,162 @@ public class ShowPortalSubCommand
 
     @Override
     public void registered() {
-        gameScheduler.intervalTickEvent("show_portal", () -> {
-            alternate_show_trigger = !alternate_show_trigger;
-            for (PlayerContainer player : serverContainer.getPlayers()) {
-                PlayerData tempData = playerDataServices.getPlayerData(player);
-
-                if (!tempData.isPortalVisible()) {
-                    continue;
+        playerTaskScheduler.intervalPlayerTask("show_portal", player -> {
+            PlayerData tempData = playerDataServices.getPlayerData(player);
+
+            if (outlineDisplay.isAvailable()) {
+                // Also clears them once hidden or switched back to particles
+                boolean useOutlines = config.getDisplayEntityOutlines();
+                outlineDisplay.show(player, OUTLINE_GROUP,
+                                    useOutlines && tempData.isPortalVisible()
+                                        ? getOutlines(player, tempData)
+                                        : Collections.emptyList());
+                if (useOutlines) {
+                    return;
                 }
+            }
 
-                BlockLocation pos1 = tempData.getPos1();
-                BlockLocation pos2 = tempData.getPos2();
-
-                if (pos1 != null && pos2 != null
-                    && pos1.getWorldName().equals(player.getWorldName())
-                    && pos2.getWorldName().equals(player.getWorldName())) {
-                    int widthX = Math.abs(pos1.getPosX() - pos2.getPosX());
-                    int widthY = Math.abs(pos1.getPosY() - pos2.getPosY());
-                    int widthZ = Math.abs(pos1.getPosZ() - pos2.getPosZ());
-                    int totalBlocks = widthX * widthY * widthZ;
-                    if (totalBlocks <= config.maxPortalVisualisationSize())
-                        debugVisuals(player, pos1, pos2, SELECTION_COLOR);
-                }
+            if (!tempData.isPortalVisible()) {
+                return;
+            }
 
-                if (pos1 != null
-                    && pos1.getWorldName().equals(player.getWorldName())) {
-                    drawBox(player, pos1, pos1, POS1_COLOR, 0.25f);
-                }
-                if (pos2 != null
-                    && pos2.getWorldName().equals(player.getWorldName())) {
-                    drawBox(player, pos2, pos2, POS2_COLOR, 0.25f);
-                }
+            BlockLocation pos1 = tempData.getPos1();
+            BlockLocation pos2 = tempData.getPos2();
+
+            if (pos1 != null && pos2 != null
+                && pos1.getWorldName().equals(player.getWorldName())
+                && pos2.getWorldName().equals(player.getWorldName())) {
+                int widthX = Math.abs(pos1.getPosX() - pos2.getPosX());
+                int widthY = Math.abs(pos1.getPosY() - pos2.getPosY());
+                int widthZ = Math.abs(pos1.getPosZ() - pos2.getPosZ());
+                int totalBlocks = widthX * widthY * widthZ;
+                if (totalBlocks <= config.maxPortalVisualisationSize())
+                    debugVisuals(player, tempData, pos1, pos2,
+                                 SELECTION_COLOR);
+            }
 
-                // If both are selected and both worlds are the same as the
-                // player
-                if (pos1 != null && pos2 != null
-                    && pos1.getWorldName().equals(player.getWorldName())
-                    && pos2.getWorldName().equals(player.getWorldName())) {
-                    if (pos1.distanceTo(pos2)
-                        <= config.maxSelectionVisualisationSize()) {
-                        drawBox(player, pos1, pos2, SELECTION_COLOR, 1f);
-                    }
-                }
+            if (pos1 != null
+                && pos1.getWorldName().equals(player.getWorldName())) {
+                player.drawShape(pos1Shapes.get(tempData, pos1,
+                                                () -> box(pos1, pos1, 0.25f)),
+                                 0, POS1_COLOR);
+            }
+            if (pos2 != null
+                && pos2.getWorldName().equals(player.getWorldName())) {
+                player.drawShape(pos2Shapes.get(tempData, pos2,
+                                                () -> box(pos2, pos2, 0.25f)),
+                                 0, POS2_COLOR);
+            }
 
-                for (AdvancedPortal portal : portalServices.getPortals()) {
-                    if (Objects.equals(portal.getMinLoc().getWorldName(),
-                                       player.getWorldName())
-                        && portal.isLocationInPortal(
-                            player.getLoc(), config.getShowVisibleRange())) {
-                        debugVisuals(player, portal, OUTLINE_COLOR,
-                                     TRIGGER_COLOR);
-                    }
+            // If both are selected and both worlds are the same as the player
+            if (pos1 != null && pos2 != null
+                && pos1.getWorldName().equals(player.getWorldName())
+                && pos2.getWorldName().equals(player.getWorldName())) {
+                if (pos1.distanceTo(pos2)
+                    <= config.maxSelectionVisualisationSize()) {
+                    player.drawShape(
+                        selectionShapes.get(tempData, pos1, pos2,
+                                            () -> box(pos1, pos2, 1f)),
+                        0, SELECTION_COLOR);
                 }
             }
-        }, 1, 5);
+
+            for (AdvancedPortal portal : portalServices.getPortalsNear(
+                     player.getBlockLoc(), config.getShowVisibleRange())) {
+                debugVisuals(player, portal, OUTLINE_COLOR, TRIGGER_COLOR);
+            }
+        }, 1, SHOW_INTERVAL_TICKS);
     }
 
-    private void debugVisuals(PlayerContainer player, BlockLocation pos1,
-                              BlockLocation pos2, Color color) {
-        debugVisuals(player, pos1, pos2, color, null, null);
+    private List<OutlineDisplay.Outline> getOutlines(PlayerContainer player,
+                                                    PlayerData tempData) {
+        List<OutlineDisplay.Outline> outlines = new ArrayList<>();
+        String worldName = player.getWorldName();
+        BlockLocation pos1 = tempData.getPos1();
+        BlockLocation pos2 = tempData.getPos2();
+        boolean pos1Here =
+            pos1 != null && pos1.getWorldName().equals(worldName);
+        boolean pos2Here =
+            pos2 != null && pos2.getWorldName().equals(worldName);
+
+        // Same limits as the particle selection
+        if (pos1Here && pos2Here
+            && pos1.getSize(pos2) <= config.maxPortalVisualisationSize()
+            && pos1.distanceTo(pos2)
+                <= config.maxSelectionVisualisationSize()) {
+            outlines.add(OutlineDisplay.Outline.box("selection", pos1, pos2,
+                                                    SELECTION_COLOR));
+        }
+        if (pos1Here) {
+            outlines.add(
+                OutlineDisplay.Outline.box("pos1", pos1, pos1, POS1_COLOR));
+        }
+        if (pos2Here) {
+            outlines.add(
+                OutlineDisplay.Outline.box("pos2", pos2, pos2, POS2_COLOR));
+        }
+
+        for (AdvancedPortal portal : portalServices.getPortalsNear(
+                 player.getBlockLoc(), config.getShowVisibleRange())) {
+            if (portal.getMinLoc().getSize(portal.getMaxLoc())
+                <= config.maxPortalVisualisationSize()) {
+                outlines.add(OutlineDisplay.Outline.box(
+                    "portal:" + portal.getName(), portal.getMinLoc(),
+                    portal.getMaxLoc(), OUTLINE_COLOR));
+            }
+        }
+        return outlines;
     }
 
-    private void debugVisuals(PlayerContainer player, AdvancedPortal portal,
-                              Color color, Color triggerColor) {
-        debugVisuals(player, portal.getMinLoc(), portal.getMaxLoc(), color,
-                     triggerColor, portal);
+    /**
+     * Trigger blocks flash by only showing every other run. Players are drawn
+     * from different threads so this goes off the clock rather than a shared
+     * toggle.
+     */
+    private static boolean showTriggersThisRun() {
+        return (System.nanoTime() / SHOW_INTERVAL_NANOS) % 2 == 0;
     }
 
-    private void drawBox(PlayerContainer player, BlockLocation pos1,
-                         BlockLocation pos2, Color color,
-                         float particleDensity) {
-        int minX = Math.min(pos1.getPosX(), pos2.getPosX());
-        int minY = Math.min(pos1.getPosY(), pos2.getPosY());
-        int minZ = Math.min(pos1.getPosZ(), pos2.getPosZ());
-
-        int maxX = Math.max(pos1.getPosX(), pos2.getPosX()) + 1;
-        int maxY = Math.max(pos1.getPosY(), pos2.getPosY()) + 1;
-        int maxZ = Math.max(pos1.getPosZ(), pos2.getPosZ()) + 1;
-
-        player.drawLine(new Vector(minX, maxY, maxZ),
-                        new Vector(maxX, maxY, maxZ), color, particleDensity);
-        player.drawLine(new Vector(minX, minY, minZ),
-                        new Vector(maxX, minY, minZ), color, particleDensity);
-        player.drawLine(new Vector(minX, minY, minZ),
-                        new Vector(minX, maxY, minZ), color, particleDensity);
-        player.drawLine(new Vector(maxX, minY, maxZ),
-                        new Vector(maxX, maxY, maxZ), color, particleDensity);
-        player.drawLine(new Vector(maxX, maxY, minZ),
-                        new Vector(maxX, maxY, maxZ), color, particleDensity);
-        player.drawLine(new Vector(minX, minY, minZ),
-                        new Vector(minX, minY, maxZ), color, particleDensity);
-        player.drawLine(new Vector(maxX, minY, minZ),
-                        new Vector(maxX, maxY, minZ), color, particleDensity);
-        player.drawLine(new Vector(maxX, minY, minZ),
-                        new Vector(maxX, minY, maxZ), color, particleDensity);
-        player.drawLine(new Vector(minX, maxY, minZ),
-                        new Vector(maxX, maxY, minZ), color, particleDensity);
-        player.drawLine(new Vector(minX, maxY, minZ),
-                        new Vector(minX, maxY, maxZ), color, particleDensity);
-        player.drawLine(new Vector(minX, minY, maxZ),
-                        new Vector(maxX, minY, maxZ), color, particleDensity);
-        player.drawLine(new Vector(minX, minY, maxZ),
-                        new Vector(minX, maxY, maxZ), color, particleDensity);
+    private void debugVisuals(PlayerContainer player, PlayerData tempData,
+                              BlockLocation pos1, BlockLocation pos2,
+                              Color color) {
+        if (pos1.getSize(pos2) <= config.maxPortalVisualisationSize()) {
+            player.drawShape(
+                selectionOutlineShapes.get(tempData, pos1, pos2,
+                                           () -> box(pos1, pos2, 0.5f)),
+                0, color);
+        }
     }
 
-    private void debugVisuals(PlayerContainer player, BlockLocation pos1,
-                              BlockLocation pos2, Color color,
-                              Color triggerColor, AdvancedPortal portal) {
-        int minX = Math.min(pos1.getPosX(), pos2.getPosX());
-        int minY = Math.min(pos1.getPosY(), pos2.getPosY());
-        int minZ = Math.min(pos1.getPosZ(), pos2.getPosZ());
-
-        int maxX = Math.max(pos1.getPosX(), pos2.getPosX());
-        int maxY = Math.max(pos1.getPosY(), pos2.getPosY());
-        int maxZ = Math.max(pos1.getPosZ(), pos2.getPosZ());
-
-        int size = pos1.getSize(pos2);
-
-        WorldContainer world = player.getWorld();
-
-        if (size <= config.maxPortalVisualisationSize()) {
-            drawBox(player, pos1, pos2, color, 0.5f);
-
-            for (int x = minX; x <= maxX; x++) {
-                for (int y = minY; y <= maxY; y++) {
-                    for (int z = minZ; z <= maxZ; z++) {
-                        BlockLocation pos =
-                            new BlockLocation(pos1.getWorldName(), x, y, z);
-                        boolean isTrigger = portal != null
-                            && portal.isTriggerBlock(world.getBlock(pos));
-                        if (isTrigger && alternate_show_trigger)
-                            player.spawnColoredDust(pos.toVector().add(OFFSET),
-                                                    0.2, 0.2, 0.2, 1,
-                                                    triggerColor);
-                    }
-                }
-            }
+    private void debugVisuals(PlayerContainer player, AdvancedPortal portal,
+                              Color color, Color triggerColor) {
+        BlockLocation pos1 = portal.getMinLoc();
+        BlockLocation pos2 = portal.getMaxLoc();
+        if (pos1.getSize(pos2) > config.maxPortalVisualisationSize()) {
+            return;
+        }
+        player.drawShape(
+            portalShapes.get(portal, pos1, pos2, () -> box(pos1, pos2, 0.5f)),
+            0, color);
+
+        if (showTriggersThisRun()) {
+            List<BlockLocation> triggers =
+                portal.getTriggerBlockLocations(player.getWorld());
+            player.drawShape(
+                triggerShapes.get(portal, triggers,
+                                  () -> ParticleShape.blockCentres(triggers)),
+                0.2, triggerColor);
         }
     }
+
+    private static ParticleShape box(BlockLocation pos1, BlockLocation pos2,
+                                     float particleDensity) {
+        return ParticleShape.box(
+            Math.min(pos1.getPosX(), pos2.getPosX()),
+            Math.min(pos1.getPosY(), pos2.getPosY()),
+            Math.min(pos1.getPosZ(), pos2.getPosZ()),
+            Math.max(pos1.getPosX(), pos2.getPosX()) + 1,
+            Math.max(pos1.getPosY(), pos2.getPosY()) + 1,
+            Math.max(pos1.getPosZ(), pos2.getPosZ()) + 1, particleDensity);
+    }
 }
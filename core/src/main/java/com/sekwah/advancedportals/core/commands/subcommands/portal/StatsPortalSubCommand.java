@@ -0,0 +1,61 @@
+package com.sekwah.advancedportals.core.commands.subcommands.portal;
+
+import com.google.inject.Inject;
+import com.sekwah.advancedportals.core.commands.SubCommand;
+import com.sekwah.advancedportals.core.connector.containers.CommandSenderContainer;
+import com.sekwah.advancedportals.core.metrics.Counter;
+import com.sekwah.advancedportals.core.metrics.LatencyHistogram;
+import com.sekwah.advancedportals.core.metrics.Metrics;
+import com.sekwah.advancedportals.core.permissions.Permissions;
+import com.sekwah.advancedportals.core.util.Lang;
+import java.util.List;
+import java.util.Locale;
+
+public class StatsPortalSubCommand implements SubCommand {
+    @Inject
+    Metrics metrics;
+
+    @Override
+    public void onCommand(CommandSenderContainer sender, String[] args) {
+        sender.sendMessage(
+            Lang.centeredTitle(Lang.translate("command.stats.title")));
+        for (LatencyHistogram histogram : metrics.getHistograms()) {
+            long count = histogram.getCount();
+            long average = count == 0 ? 0 : histogram.getSumNanos() / count;
+            sender.sendMessage(Lang.translateInsertVariables(
+                "command.stats.timing", histogram.getName(), count,
+                formatMicros(average),
+                formatMicros(histogram.getQuantileBoundNanos(0.99)),
+                formatMicros(histogram.getMaxNanos())));
+        }
+        for (Counter counter : metrics.getCounters()) {
+            sender.sendMessage(Lang.translateInsertVariables(
+                "command.stats.counter", counter.getName(), counter.get()));
+        }
+    }
+
+    private static String formatMicros(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1000D);
+    }
+
+    @Override
+    public boolean hasPermission(CommandSenderContainer sender) {
+        return Permissions.STATS.hasPermission(sender);
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSenderContainer sender,
+                                      String[] args) {
+        return null;
+    }
+
+    @Override
+    public String getBasicHelpText() {
+        return Lang.translate("command.stats.help");
+    }
+
+    @Override
+    public String getDetailedHelpText() {
+        return Lang.translate("command.stats.detailedhelp");
+    }
+}
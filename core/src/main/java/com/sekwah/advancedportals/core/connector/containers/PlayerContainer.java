@@ -1,7 +1,9 @@
 package com.sekwah.advancedportals.core.connector.containers;
 
 import com.sekwah.advancedportals.core.serializeddata.BlockLocation;
+import com.sekwah.advancedportals.core.serializeddata.PlayerLocation;
 import com.sekwah.advancedportals.core.serializeddata.Vector;
+import com.sekwah.advancedportals.core.util.ParticleShape;
 import java.awt.*;
 import java.util.UUID;
 
@@ -34,15 +36,28 @@ public interface PlayerContainer extends EntityContainer, HasPermission {
 
     default void drawLine(Vector start, Vector end, Color color,
                           float particleDensity) {
-        Vector direction = end.subtract(start);
-        double length = direction.length();
-        if (length == 0) {
-            return;
-        }
-        direction = direction.normalize();
-        for (double i = 0; i <= length; i += particleDensity) {
-            Vector pos = start.add(direction.multiply(i));
-            this.spawnColoredDust(pos, 1, color);
+        this.drawShape(ParticleShape.line(start, end, particleDensity), 0,
+                       color);
+    }
+
+    /**
+     * Spawns one dust particle at each point of the shape, skipping any
+     * further than {@link ParticleShape#VIEW_DISTANCE} from the player.
+     * Platforms should override this to send the whole frame without
+     * allocating per particle.
+     */
+    default void drawShape(ParticleShape shape, double spread, Color color) {
+        PlayerLocation loc = this.getLoc();
+        double[] points = shape.getPoints();
+        for (int i = 0; i < points.length; i += 3) {
+            double dx = points[i] - loc.getPosX();
+            double dy = points[i + 1] - loc.getPosY();
+            double dz = points[i + 2] - loc.getPosZ();
+            if (dx * dx + dy * dy + dz * dz <= ParticleShape.VIEW_DISTANCE_SQ) {
+                this.spawnColoredDust(
+                    new Vector(points[i], points[i + 1], points[i + 2]), spread,
+                    spread, spread, 1, color);
+            }
         }
     }
 
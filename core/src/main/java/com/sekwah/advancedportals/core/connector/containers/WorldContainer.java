@@ -2,6 +2,7 @@ package com.sekwah.advancedportals.core.connector.containers;
 
 import com.sekwah.advancedportals.core.data.BlockAxis;
 import com.sekwah.advancedportals.core.portal.AdvancedPortal;
+import com.sekwah.advancedportals.core.registry.MaterialRegistry;
 import com.sekwah.advancedportals.core.serializeddata.BlockLocation;
 import java.awt.*;
 
@@ -10,6 +11,13 @@ public interface WorldContainer {
 
     String getBlock(BlockLocation location);
 
+    /**
+     * @return the {@link MaterialRegistry} id of the block at the location.
+     */
+    default int getBlockId(BlockLocation location) {
+        return MaterialRegistry.getId(this.getBlock(location));
+    }
+
     void disableBeacon(BlockLocation location);
 
     BlockAxis getBlockAxis(BlockLocation location);
@@ -6,6 +6,8 @@ import com.sekwah.advancedportals.core.registry.TagRegistry;
 import com.sekwah.advancedportals.core.registry.TagTarget;
 import com.sekwah.advancedportals.core.serializeddata.DataTag;
 import com.sekwah.advancedportals.core.serializeddata.PlayerLocation;
+import com.sekwah.advancedportals.core.util.FriendlyDataInput;
+import com.sekwah.advancedportals.core.util.FriendlyDataOutput;
 import com.sekwah.advancedportals.core.warphandler.ActivationData;
 import com.sekwah.advancedportals.core.warphandler.Tag;
 import com.sekwah.advancedportals.core.warphandler.TriggerType;
@@ -147,6 +149,39 @@ public class Destination implements TagTarget {
         return tagList;
     }
 
+    /**
+     * Writes the saved fields for the binary snapshot, see {@link #read}.
+     */
+    public void write(FriendlyDataOutput out) {
+        out.writeUtf(this.loc.getWorldName());
+        out.writeDouble(this.loc.getPosX());
+        out.writeDouble(this.loc.getPosY());
+        out.writeDouble(this.loc.getPosZ());
+        out.writeFloat(this.loc.getYaw());
+        out.writeFloat(this.loc.getPitch());
+        out.writeVarInt(this.args.size());
+        for (Map.Entry<String, String[]> entry : this.args.entrySet()) {
+            out.writeUtf(entry.getKey());
+            out.writeUtfArray(entry.getValue());
+        }
+    }
+
+    /**
+     * @return a destination read from the binary snapshot. Members still need
+     *     to be injected before it is used.
+     */
+    public static Destination read(FriendlyDataInput in) {
+        Destination destination = new Destination(
+            new PlayerLocation(in.readUtf(), in.readDouble(), in.readDouble(),
+                               in.readDouble(), in.readFloat(),
+                               in.readFloat()));
+        int argCount = in.readVarInt();
+        for (int i = 0; i < argCount; i++) {
+            destination.setArgValues(in.readUtf(), in.readUtfArray());
+        }
+        return destination;
+    }
+
     public String getName() {
         return this.getArgValues("name")[0];
     }
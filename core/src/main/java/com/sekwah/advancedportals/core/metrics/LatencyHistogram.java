@@ -0,0 +1,116 @@
+package com.sekwah.advancedportals.core.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how long something took in fixed buckets, safe to record to from
+ * any thread without locking.
+ */
+public final class LatencyHistogram {
+    /**
+     * Upper bound of each bucket, anything slower goes in a final overflow
+     * bucket.
+     */
+    static final long[] BUCKET_BOUNDS_NANOS = {
+        1_000L,      5_000L,      10_000L,      50_000L,
+        100_000L,    500_000L,    1_000_000L,   5_000_000L,
+        10_000_000L, 50_000_000L, 100_000_000L, 1_000_000_000L};
+
+    private final String name;
+
+    private final String help;
+
+    private final LongAdder[] buckets =
+        new LongAdder[BUCKET_BOUNDS_NANOS.length + 1];
+
+    private final LongAdder sumNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram(String name, String help) {
+        this.name = name;
+        this.help = help;
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_NANOS.length
+               && nanos > BUCKET_BOUNDS_NANOS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        sumNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Records the time since start, which should be from
+     * {@link System#nanoTime()}.
+     */
+    public void recordSince(long start) {
+        record(System.nanoTime() - start);
+    }
+
+    /**
+     * @return the count in each bucket, not cumulative.
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * @return the upper bound of the bucket the quantile falls in, or the
+     *     max seen if it is past the last bucket.
+     */
+    public long getQuantileBoundNanos(double quantile) {
+        long[] counts = getBucketCounts();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_NANOS.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return BUCKET_BOUNDS_NANOS[i];
+            }
+        }
+        return getMaxNanos();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getHelp() {
+        return help;
+    }
+}
@@ -0,0 +1,152 @@
+package com.sekwah.advancedportals.core.metrics;
+
+import com.google.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Counters and timings for the parts of the plugin that run the most often,
+ * shown by {@code /portal stats} and optionally exported to a file.
+ */
+@Singleton
+public class Metrics {
+    private static final String PREFIX = "advancedportals_";
+
+    private final List<LatencyHistogram> histograms = new ArrayList<>();
+
+    private final List<Counter> counters = new ArrayList<>();
+
+    private final LatencyHistogram playerMove =
+        histogram("player_move", "Time spent handling player movement");
+
+    private final LatencyHistogram portalCheck = histogram(
+        "portal_check", "Time spent checking if a player is in a portal");
+
+    private final LatencyHistogram protectionCheck = histogram(
+        "protection_check", "Time spent checking portal protection regions");
+
+    private final LatencyHistogram portalActivate =
+        histogram("portal_activate", "Time spent activating portals");
+
+    private final LatencyHistogram storageLoad =
+        histogram("storage_load", "Time spent reading data files");
+
+    private final LatencyHistogram storageStore =
+        histogram("storage_store", "Time spent writing data files");
+
+    private final Counter proxyMessagesReceived = counter(
+        "proxy_messages_received", "Plugin messages received from the proxy");
+
+    private final Counter proxyMessagesSent =
+        counter("proxy_messages_sent", "Plugin messages sent to the proxy");
+
+    private final Counter moveChecksSkipped = counter(
+        "move_checks_skipped", "Player moves that skipped the portal checks");
+
+    private final Counter moveChecksPassed = counter(
+        "move_checks_passed", "Player moves that went through portal checks");
+
+    private LatencyHistogram histogram(String name, String help) {
+        LatencyHistogram histogram = new LatencyHistogram(name, help);
+        histograms.add(histogram);
+        return histogram;
+    }
+
+    private Counter counter(String name, String help) {
+        Counter counter = new Counter(name, help);
+        counters.add(counter);
+        return counter;
+    }
+
+    public LatencyHistogram getPlayerMove() {
+        return playerMove;
+    }
+
+    public LatencyHistogram getPortalCheck() {
+        return portalCheck;
+    }
+
+    public LatencyHistogram getProtectionCheck() {
+        return protectionCheck;
+    }
+
+    public LatencyHistogram getPortalActivate() {
+        return portalActivate;
+    }
+
+    public LatencyHistogram getStorageLoad() {
+        return storageLoad;
+    }
+
+    public LatencyHistogram getStorageStore() {
+        return storageStore;
+    }
+
+    public Counter getProxyMessagesReceived() {
+        return proxyMessagesReceived;
+    }
+
+    public Counter getProxyMessagesSent() {
+        return proxyMessagesSent;
+    }
+
+    public Counter getMoveChecksSkipped() {
+        return moveChecksSkipped;
+    }
+
+    public Counter getMoveChecksPassed() {
+        return moveChecksPassed;
+    }
+
+    public List<LatencyHistogram> getHistograms() {
+        return Collections.unmodifiableList(histograms);
+    }
+
+    public List<Counter> getCounters() {
+        return Collections.unmodifiableList(counters);
+    }
+
+    /**
+     * @return everything in the Prometheus text exposition format.
+     */
+    public String toPrometheusText() {
+        StringBuilder builder = new StringBuilder(4096);
+        for (LatencyHistogram histogram : histograms) {
+            String name = PREFIX + histogram.getName() + "_seconds";
+            builder.append("# HELP ").append(name).append(' ')
+                .append(histogram.getHelp()).append('\n');
+            builder.append("# TYPE ").append(name).append(" histogram\n");
+            long[] counts = histogram.getBucketCounts();
+            long cumulative = 0;
+            for (int i = 0; i < LatencyHistogram.BUCKET_BOUNDS_NANOS.length;
+                 i++) {
+                cumulative += counts[i];
+                builder.append(name).append("_bucket{le=\"")
+                    .append(toSeconds(LatencyHistogram.BUCKET_BOUNDS_NANOS[i]))
+                    .append("\"} ").append(cumulative).append('\n');
+            }
+            cumulative += counts[counts.length - 1];
+            builder.append(name).append("_bucket{le=\"+Inf\"} ")
+                .append(cumulative).append('\n');
+            builder.append(name).append("_sum ")
+                .append(toSeconds(histogram.getSumNanos())).append('\n');
+            builder.append(name).append("_count ").append(cumulative)
+                .append('\n');
+        }
+        for (Counter counter : counters) {
+            String name = PREFIX + counter.getName() + "_total";
+            builder.append("# HELP ").append(name).append(' ')
+                .append(counter.getHelp()).append('\n');
+            builder.append("# TYPE ").append(name).append(" counter\n");
+            builder.append(name).append(' ').append(counter.get())
+                .append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static String toSeconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+}
@@ -0,0 +1,70 @@
+package com.sekwah.advancedportals.core.metrics;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.sekwah.advancedportals.core.repository.ConfigRepository;
+import com.sekwah.advancedportals.core.serializeddata.DataStorage;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes the metrics to a Prometheus text file in the data
+ * folder, e.g. for the node exporter's textfile collector.
+ */
+@Singleton
+public class MetricsExporter {
+    public static final String EXPORT_FILE = "metrics/advancedportals.prom";
+
+    @Inject
+    private Metrics metrics;
+
+    @Inject
+    private ConfigRepository configRepository;
+
+    @Inject
+    private DataStorage dataStorage;
+
+    private final ScheduledExecutorService exportExecutor =
+        Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AdvancedPortals-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    private ScheduledFuture<?> exportTask;
+
+    private int exportSeconds;
+
+    /**
+     * Starts, stops or reschedules the export to match the config.
+     */
+    public synchronized void updateSchedule() {
+        int seconds = configRepository.getMetricsExportSeconds();
+        if (exportTask != null && seconds == exportSeconds) {
+            return;
+        }
+        if (exportTask != null) {
+            exportTask.cancel(false);
+            exportTask = null;
+        }
+        exportSeconds = seconds;
+        if (seconds > 0 && !exportExecutor.isShutdown()) {
+            exportTask = exportExecutor.scheduleAtFixedRate(
+                this::export, seconds, seconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public void export() {
+        dataStorage.writeBytes(
+            metrics.toPrometheusText().getBytes(StandardCharsets.UTF_8),
+            EXPORT_FILE);
+    }
+
+    public synchronized void shutdown() {
+        exportExecutor.shutdownNow();
+        exportTask = null;
+    }
+}
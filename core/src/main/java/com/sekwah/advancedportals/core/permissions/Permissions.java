@@ -95,6 +95,10 @@ public class Permissions {
         PORTAL.createChild("info", PermissionBuilder.PermissionDefault.OP)
             .description("Allows you to view portal information");
 
+    public static final PermissionBuilder STATS =
+        PORTAL.createChild("stats", PermissionBuilder.PermissionDefault.OP)
+            .description("Allows you to view plugin performance stats");
+
     static {
         // These are to add children which will not be used directly e.g.
         // advancedportals.*
@@ -117,6 +121,7 @@ public class Permissions {
             .addGrantChild(IMPORT)
             .addGrantChild(SHOW_PORTAL)
             .addGrantChild(PORTAL_INFO)
+            .addGrantChild(STATS)
             .addGrantChild(BUILD);
 
         CREATE_COMMAND_LEVEL
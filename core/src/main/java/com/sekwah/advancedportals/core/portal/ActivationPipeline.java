@@ -0,0 +1,144 @@
+package com.sekwah.advancedportals.core.portal;
+
+import com.sekwah.advancedportals.core.connector.containers.PlayerContainer;
+import com.sekwah.advancedportals.core.registry.TagRegistry;
+import com.sekwah.advancedportals.core.registry.TagTarget;
+import com.sekwah.advancedportals.core.warphandler.ActivationData;
+import com.sekwah.advancedportals.core.warphandler.Tag;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A portal's activation handlers resolved once and laid out in priority order
+ * along with their arguments, so activating doesn't need any registry
+ * lookups. Args for {@link Tag.TypedActivation} handlers are parsed here too.
+ *
+ * <p>Immutable, a portal swaps in a new one when its tags change or when more
+ * tags are registered.
+ */
+final class ActivationPipeline {
+    private final long registryVersion;
+
+    private final Tag.Activation[] handlers;
+
+    private final String[][] args;
+
+    /**
+     * Parsed args for typed handlers, null where the handler isn't typed or
+     * the args could not be parsed.
+     */
+    private final Object[] parsedArgs;
+
+    private ActivationPipeline(long registryVersion, Tag.Activation[] handlers,
+                               String[][] args, Object[] parsedArgs) {
+        this.registryVersion = registryVersion;
+        this.handlers = handlers;
+        this.args = args;
+        this.parsedArgs = parsedArgs;
+    }
+
+    static ActivationPipeline compile(Map<String, String[]> portalArgs,
+                                      TagRegistry tagRegistry,
+                                      Tag.TagType tagType) {
+        long registryVersion = tagRegistry.getVersion();
+        List<Map.Entry<String, String[]>> entries =
+            new ArrayList<>(portalArgs.entrySet());
+        entries.sort(Comparator.comparingInt(entry -> {
+            Tag tag = tagRegistry.getTag(entry.getKey());
+            if (tag instanceof Tag.OrderPriority) {
+                Tag.OrderPriority tagPriority = (Tag.OrderPriority) tag;
+                return tagPriority.getPriority().ordinal();
+            } else {
+                return Tag.Priority.NORMAL.ordinal();
+            }
+        }));
+
+        List<Tag.Activation> handlers = new ArrayList<>();
+        List<String[]> args = new ArrayList<>();
+        for (Map.Entry<String, String[]> entry : entries) {
+            Tag.Activation handler =
+                tagRegistry.getActivationHandler(entry.getKey(), tagType);
+            if (handler != null) {
+                handlers.add(handler);
+                args.add(entry.getValue());
+            }
+        }
+        Object[] parsedArgs = new Object[handlers.size()];
+        for (int i = 0; i < parsedArgs.length; i++) {
+            if (handlers.get(i) instanceof Tag.TypedActivation) {
+                parsedArgs[i] = parseArgs(
+                    (Tag.TypedActivation<?>) handlers.get(i), args.get(i));
+            }
+        }
+        return new ActivationPipeline(
+            registryVersion, handlers.toArray(new Tag.Activation[0]),
+            args.toArray(new String[0][]), parsedArgs);
+    }
+
+    private static Object parseArgs(Tag.TypedActivation<?> handler,
+                                    String[] argData) {
+        if (argData == null) {
+            return null;
+        }
+        try {
+            return handler.parseArgs(argData);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    boolean isCurrent(TagRegistry tagRegistry) {
+        return this.registryVersion == tagRegistry.getVersion();
+    }
+
+    int size() {
+        return this.handlers.length;
+    }
+
+    Tag.Activation getHandler(int index) {
+        return this.handlers[index];
+    }
+
+    boolean preActivated(int index, TagTarget target, PlayerContainer player,
+                         ActivationData data) {
+        Object parsed = this.parsedArgs[index];
+        if (parsed != null) {
+            return typed(index).preActivatedParsed(target, player, data,
+                                                   parsed);
+        }
+        return this.handlers[index].preActivated(target, player, data,
+                                                 this.args[index]);
+    }
+
+    boolean activated(int index, TagTarget target, PlayerContainer player,
+                      ActivationData data) {
+        Object parsed = this.parsedArgs[index];
+        if (parsed != null) {
+            return typed(index).activatedParsed(target, player, data, parsed);
+        }
+        return this.handlers[index].activated(target, player, data,
+                                              this.args[index]);
+    }
+
+    void postActivated(int index, TagTarget target, PlayerContainer player,
+                       ActivationData data) {
+        Object parsed = this.parsedArgs[index];
+        if (parsed != null) {
+            typed(index).postActivatedParsed(target, player, data, parsed);
+        } else {
+            this.handlers[index].postActivated(target, player, data,
+                                               this.args[index]);
+        }
+    }
+
+    /**
+     * Only called where parsing succeeded, so the parsed value came from
+     * this handler and matches its type.
+     */
+    @SuppressWarnings("unchecked")
+    private Tag.TypedActivation<Object> typed(int index) {
+        return (Tag.TypedActivation<Object>) this.handlers[index];
+    }
+}
@@ -2,6 +2,9 @@ package com.sekwah.advancedportals.core.portal;
 
 import com.google.inject.Inject;
 import com.sekwah.advancedportals.core.connector.containers.PlayerContainer;
+import com.sekwah.advancedportals.core.connector.containers.WorldContainer;
+import com.sekwah.advancedportals.core.metrics.Metrics;
+import com.sekwah.advancedportals.core.registry.MaterialRegistry;
 import com.sekwah.advancedportals.core.registry.TagRegistry;
 import com.sekwah.advancedportals.core.registry.TagTarget;
 import com.sekwah.advancedportals.core.repository.ConfigRepository;
@@ -11,11 +14,15 @@ import com.sekwah.advancedportals.core.serializeddata.PlayerData;
 import com.sekwah.advancedportals.core.serializeddata.PlayerLocation;
 import com.sekwah.advancedportals.core.services.PlayerDataServices;
 import com.sekwah.advancedportals.core.tags.TriggerBlockTag;
+import com.sekwah.advancedportals.core.util.FriendlyDataInput;
+import com.sekwah.advancedportals.core.util.FriendlyDataOutput;
 import com.sekwah.advancedportals.core.util.Lang;
 import com.sekwah.advancedportals.core.warphandler.ActivationData;
 import com.sekwah.advancedportals.core.warphandler.Tag;
 import com.sekwah.advancedportals.core.warphandler.TriggerType;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author sekwah41
@@ -30,13 +37,37 @@ public class AdvancedPortal implements TagTarget {
 
     private final HashMap<String, String[]> args = new HashMap<>();
 
-    private transient List<DataTag> portalTags = new ArrayList<>();
+    /**
+     * Compiled from the args on first activation, dropped whenever they
+     * change.
+     */
+    private transient volatile ActivationPipeline activationPipeline;
+
+    /**
+     * Created lazily and dropped whenever the bounds or trigger blocks change.
+     */
+    private transient volatile PortalTriggerMask triggerMask;
 
-    private transient boolean isSorted = false;
+    /**
+     * {@link MaterialRegistry} ids of the trigger blocks, built on first use.
+     */
+    private transient volatile BitSet triggerBlockIds;
+
+    /**
+     * Bumped whenever anything that affects where the trigger blocks are
+     * changes, so a cached {@link TriggerGeometry} knows it's stale.
+     */
+    private final transient AtomicInteger geometryVersion =
+        new AtomicInteger();
+
+    private transient volatile TriggerGeometry triggerGeometry;
 
     @Inject
     private transient PlayerDataServices playerDataServices;
 
+    @Inject
+    private transient Metrics metrics;
+
     @Inject
     transient ConfigRepository configRepository;
 
@@ -68,8 +99,13 @@ public class AdvancedPortal implements TagTarget {
 
     @Override
     public void setArgValues(String argName, String[] argValues) {
-        this.isSorted = false;
         this.args.put(argName, argValues);
+        this.activationPipeline = null;
+        if (TriggerBlockTag.TAG_NAME.equals(argName)) {
+            this.triggerMask = null;
+            this.triggerBlockIds = null;
+            this.geometryVersion.incrementAndGet();
+        }
     }
 
     @Override
@@ -78,29 +114,29 @@ public class AdvancedPortal implements TagTarget {
     }
 
     public void updatePortalTagList() {
-        portalTags.clear();
-        int i = 0;
-        for (Map.Entry<String, String[]> entry : args.entrySet()) {
-            this.portalTags.add(new DataTag(entry.getKey(), entry.getValue()));
-        }
+        this.activationPipeline = ActivationPipeline.compile(
+            this.args, tagRegistry, Tag.TagType.PORTAL);
+    }
 
-        // sort the tags by priority
-        this.portalTags.sort(Comparator.comparingInt(o -> {
-            Tag tag = tagRegistry.getTag(o.NAME);
-            if (tag instanceof Tag.OrderPriority) {
-                Tag.OrderPriority tagPriority = (Tag.OrderPriority) tag;
-                return tagPriority.getPriority().ordinal();
-            } else {
-                return Tag.Priority.NORMAL.ordinal();
-            }
-        }));
-        isSorted = true;
+    private ActivationPipeline getActivationPipeline() {
+        ActivationPipeline pipeline = this.activationPipeline;
+        if (pipeline == null || !pipeline.isCurrent(tagRegistry)) {
+            pipeline = ActivationPipeline.compile(this.args, tagRegistry,
+                                                  Tag.TagType.PORTAL);
+            this.activationPipeline = pipeline;
+        }
+        return pipeline;
     }
 
     @Override
     public void removeArg(String arg) {
-        this.isSorted = false;
         this.args.remove(arg);
+        this.activationPipeline = null;
+        if (TriggerBlockTag.TAG_NAME.equals(arg)) {
+            this.triggerMask = null;
+            this.triggerBlockIds = null;
+            this.geometryVersion.incrementAndGet();
+        }
     }
 
     /**
@@ -120,6 +156,8 @@ public class AdvancedPortal implements TagTarget {
 
         this.minLoc = new BlockLocation(loc1.getWorldName(), minX, minY, minZ);
         this.maxLoc = new BlockLocation(loc2.getWorldName(), maxX, maxY, maxZ);
+        this.triggerMask = null;
+        this.geometryVersion.incrementAndGet();
     }
 
     /*public boolean hasTriggerBlock(String blockMaterial) {
@@ -140,9 +178,17 @@ public class AdvancedPortal implements TagTarget {
      */
     public ActivationResult activate(PlayerContainer player,
                                      TriggerType triggerType) {
-        if (!isSorted) {
-            updatePortalTagList();
+        long start = System.nanoTime();
+        try {
+            return runActivation(player, triggerType);
+        } finally {
+            metrics.getPortalActivate().recordSince(start);
         }
+    }
+
+    private ActivationResult runActivation(PlayerContainer player,
+                                           TriggerType triggerType) {
+        ActivationPipeline pipeline = getActivationPipeline();
 
         PlayerData playerData = playerDataServices.getPlayerData(player);
 
@@ -154,51 +200,37 @@ public class AdvancedPortal implements TagTarget {
                 Lang.translate(cooldown == 1 ? "time.second"
                                              : "time.seconds")));
             if (configRepository.playFailSound()) {
-                Random rand = new Random();
-                player.playSound("block.portal.travel", 0.05f,
-                                 rand.nextFloat() * 0.4F + 0.8F);
+                player.playSound(
+                    "block.portal.travel", 0.05f,
+                    ThreadLocalRandom.current().nextFloat() * 0.4F + 0.8F);
             }
             return ActivationResult.FAILED_DO_KNOCKBACK;
         }
 
         ActivationData data = new ActivationData(triggerType);
 
-        for (DataTag portalTag : this.portalTags) {
-            Tag.Activation activationHandler = tagRegistry.getActivationHandler(
-                portalTag.NAME, Tag.TagType.PORTAL);
-            if (activationHandler != null) {
-                boolean preActivated = activationHandler.preActivated(
-                    this, player, data, this.getArgValues(portalTag.NAME));
-
-                if (!preActivated) {
-                    if (activationHandler instanceof Tag.DenyBehavior) {
-                        Tag.DenyBehavior denyBehaviorHandler =
-                            (Tag.DenyBehavior) activationHandler;
-                        if (denyBehaviorHandler.getDenyBehavior().equals(
-                                Tag.DenyBehavior.Behaviour.SILENT)) {
-                            return ActivationResult.FAILED_DO_NOTHING;
-                        }
+        int handlerCount = pipeline.size();
+        for (int i = 0; i < handlerCount; i++) {
+            if (!pipeline.preActivated(i, this, player, data)) {
+                Tag.Activation activationHandler = pipeline.getHandler(i);
+                if (activationHandler instanceof Tag.DenyBehavior) {
+                    Tag.DenyBehavior denyBehaviorHandler =
+                        (Tag.DenyBehavior) activationHandler;
+                    if (denyBehaviorHandler.getDenyBehavior().equals(
+                            Tag.DenyBehavior.Behaviour.SILENT)) {
+                        return ActivationResult.FAILED_DO_NOTHING;
                     }
-                    return ActivationResult.FAILED_DO_KNOCKBACK;
                 }
+                return ActivationResult.FAILED_DO_KNOCKBACK;
             }
         }
-        for (DataTag portalTag : this.portalTags) {
-            Tag.Activation activationHandler = tagRegistry.getActivationHandler(
-                portalTag.NAME, Tag.TagType.PORTAL);
-            if (activationHandler != null
-                && !activationHandler.activated(
-                    this, player, data, this.getArgValues(portalTag.NAME))) {
+        for (int i = 0; i < handlerCount; i++) {
+            if (!pipeline.activated(i, this, player, data)) {
                 return ActivationResult.FAILED_DO_KNOCKBACK;
             }
         }
-        for (DataTag portalTag : this.portalTags) {
-            Tag.Activation activationHandler = tagRegistry.getActivationHandler(
-                portalTag.NAME, Tag.TagType.PORTAL);
-            if (activationHandler != null) {
-                activationHandler.postActivated(
-                    this, player, data, this.getArgValues(portalTag.NAME));
-            }
+        for (int i = 0; i < handlerCount; i++) {
+            pipeline.postActivated(i, this, player, data);
         }
         if (data.hasActivated()) {
             playerData.setPortalBlockCooldown(1000);
@@ -247,15 +279,161 @@ public class AdvancedPortal implements TagTarget {
     }
 
     public boolean isTriggerBlock(String blockMaterial) {
-        String[] triggerBlocks = this.getArgValues(TriggerBlockTag.TAG_NAME);
-        if (triggerBlocks != null) {
-            for (String triggerBlock : triggerBlocks) {
-                if (blockMaterial.equals(triggerBlock)) {
-                    return true;
+        return this.isTriggerBlock(MaterialRegistry.getId(blockMaterial));
+    }
+
+    public boolean isTriggerBlock(int materialId) {
+        BitSet triggerIds = this.triggerBlockIds;
+        if (triggerIds == null) {
+            triggerIds = new BitSet();
+            String[] triggerBlocks =
+                this.getArgValues(TriggerBlockTag.TAG_NAME);
+            if (triggerBlocks != null) {
+                for (String triggerBlock : triggerBlocks) {
+                    triggerIds.set(MaterialRegistry.getId(triggerBlock));
                 }
             }
+            this.triggerBlockIds = triggerIds;
         }
-        return false;
+        return materialId >= 0 && triggerIds.get(materialId);
+    }
+
+    /**
+     * Checks the block at a location inside the portal against the trigger
+     * blocks, only reading the world if the voxel isn't already known.
+     */
+    public boolean isTriggerBlockAt(WorldContainer world, BlockLocation loc) {
+        PortalTriggerMask mask = this.triggerMask;
+        if (mask == null) {
+            mask = PortalTriggerMask.create(this.minLoc, this.maxLoc);
+            if (mask == null) {
+                return this.isTriggerBlock(world.getBlockId(loc));
+            }
+            this.triggerMask = mask;
+        }
+        int index = mask.indexOf(loc);
+        if (index < 0) {
+            return false;
+        }
+        int state = mask.get(index);
+        if (state == PortalTriggerMask.UNKNOWN) {
+            boolean isTrigger = this.isTriggerBlock(world.getBlockId(loc));
+            mask.set(index, isTrigger);
+            return isTrigger;
+        }
+        return state == PortalTriggerMask.TRIGGER;
+    }
+
+    /**
+     * Forgets every cached trigger block so they are all read from the world
+     * again, for changes the block hooks can't see e.g. WorldEdit.
+     */
+    public void blocksChanged() {
+        PortalTriggerMask mask = this.triggerMask;
+        if (mask != null) {
+            mask.invalidateAll();
+        }
+        this.geometryVersion.incrementAndGet();
+    }
+
+    /**
+     * Should be called when a block inside the portal may have changed so
+     * the next check reads it from the world again.
+     */
+    public void blockChanged(BlockLocation loc) {
+        PortalTriggerMask mask = this.triggerMask;
+        if (mask != null) {
+            int index = mask.indexOf(loc);
+            if (index >= 0) {
+                mask.invalidate(index);
+            }
+        }
+        this.geometryVersion.incrementAndGet();
+    }
+
+    /**
+     * Finds every trigger block inside the portal, reusing the last result
+     * until a block inside it changes.
+     *
+     * @return the trigger block locations, must not be modified.
+     */
+    public List<BlockLocation> getTriggerBlockLocations(WorldContainer world) {
+        int version = this.geometryVersion.get();
+        TriggerGeometry geometry = this.triggerGeometry;
+        if (geometry != null && geometry.version == version) {
+            return geometry.locations;
+        }
+        BlockLocation minLoc = this.minLoc;
+        BlockLocation maxLoc = this.maxLoc;
+        List<BlockLocation> locations = new ArrayList<>();
+        for (int x = minLoc.getPosX(); x <= maxLoc.getPosX(); x++) {
+            for (int y = minLoc.getPosY(); y <= maxLoc.getPosY(); y++) {
+                for (int z = minLoc.getPosZ(); z <= maxLoc.getPosZ(); z++) {
+                    BlockLocation pos =
+                        new BlockLocation(minLoc.getWorldName(), x, y, z);
+                    if (this.isTriggerBlockAt(world, pos)) {
+                        locations.add(pos);
+                    }
+                }
+            }
+        }
+        // Tagged with the version from before the scan so a change while
+        // scanning makes the next call look again
+        geometry = new TriggerGeometry(version,
+                                       Collections.unmodifiableList(locations));
+        this.triggerGeometry = geometry;
+        return geometry.locations;
+    }
+
+    private static final class TriggerGeometry {
+        private final int version;
+
+        private final List<BlockLocation> locations;
+
+        private TriggerGeometry(int version, List<BlockLocation> locations) {
+            this.version = version;
+            this.locations = locations;
+        }
+    }
+
+    /**
+     * Writes the saved fields for the binary snapshot, see {@link #read}.
+     */
+    public void write(FriendlyDataOutput out) {
+        writeBlockLocation(out, this.minLoc);
+        writeBlockLocation(out, this.maxLoc);
+        out.writeVarInt(this.args.size());
+        for (Map.Entry<String, String[]> entry : this.args.entrySet()) {
+            out.writeUtf(entry.getKey());
+            out.writeUtfArray(entry.getValue());
+        }
+    }
+
+    /**
+     * @return a portal read from the binary snapshot. Members still need to
+     *     be injected before it is used.
+     */
+    public static AdvancedPortal read(FriendlyDataInput in) {
+        AdvancedPortal portal = new AdvancedPortal();
+        portal.updateBounds(readBlockLocation(in), readBlockLocation(in));
+        int argCount = in.readVarInt();
+        for (int i = 0; i < argCount; i++) {
+            portal.setArgValues(in.readUtf(), in.readUtfArray());
+        }
+        return portal;
+    }
+
+    private static void writeBlockLocation(FriendlyDataOutput out,
+                                           BlockLocation loc) {
+        out.writeUtf(loc.getWorldName());
+        out.writeInt(loc.getPosX());
+        out.writeInt(loc.getPosY());
+        out.writeInt(loc.getPosZ());
+    }
+
+    private static BlockLocation readBlockLocation(FriendlyDataInput in) {
+        return new BlockLocation(in.readUtf(), in.readInt(), in.readInt(),
+                                 in.readInt());
     }
 
     public String getName() {
@@ -0,0 +1,125 @@
+package com.sekwah.advancedportals.core.portal;
+
+import java.util.*;
+
+/**
+ * An immutable view of every loaded portal along with the spatial indexes
+ * built from them.
+ *
+ * <p>Readers grab the current snapshot once and can then use it from any
+ * thread without locking. Changes build a new snapshot with a higher version
+ * which is swapped in as a whole.
+ */
+public final class PortalSnapshot {
+    public static final PortalSnapshot EMPTY = new PortalSnapshot(
+        0, Collections.emptyMap(), new PortalSpatialIndex(),
+        new PortalSpatialIndex());
+
+    private final long version;
+
+    private final Map<String, AdvancedPortal> portals;
+
+    private final PortalSpatialIndex portalIndex;
+
+    /**
+     * Portal boxes grown by the protection radius.
+     */
+    private final PortalSpatialIndex protectionIndex;
+
+    private PortalSnapshot(long version, Map<String, AdvancedPortal> portals,
+                           PortalSpatialIndex portalIndex,
+                           PortalSpatialIndex protectionIndex) {
+        this.version = version;
+        this.portals = portals;
+        this.portalIndex = portalIndex;
+        this.protectionIndex = protectionIndex;
+    }
+
+    public static PortalSnapshot of(long version,
+                                    Map<String, AdvancedPortal> portals,
+                                    int protectionRadius) {
+        PortalSpatialIndex portalIndex = new PortalSpatialIndex();
+        PortalSpatialIndex protectionIndex =
+            new PortalSpatialIndex(protectionRadius);
+        for (AdvancedPortal portal : portals.values()) {
+            portalIndex.add(portal);
+            protectionIndex.add(portal);
+        }
+        return new PortalSnapshot(
+            version, Collections.unmodifiableMap(new HashMap<>(portals)),
+            portalIndex, protectionIndex);
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    public Map<String, AdvancedPortal> getPortals() {
+        return this.portals;
+    }
+
+    public AdvancedPortal getPortal(String name) {
+        return this.portals.get(name);
+    }
+
+    public PortalSpatialIndex getPortalIndex() {
+        return this.portalIndex;
+    }
+
+    public PortalSpatialIndex getProtectionIndex() {
+        return this.protectionIndex;
+    }
+
+    /**
+     * @return a copy with the portal added, replacing any with the same name.
+     */
+    public PortalSnapshot withPortal(String name, AdvancedPortal portal) {
+        Map<String, AdvancedPortal> newPortals = new HashMap<>(this.portals);
+        AdvancedPortal replaced = newPortals.put(name, portal);
+        PortalSpatialIndex newPortalIndex = this.portalIndex.copy();
+        PortalSpatialIndex newProtectionIndex = this.protectionIndex.copy();
+        if (replaced != null) {
+            newPortalIndex.remove(replaced);
+            newProtectionIndex.remove(replaced);
+        }
+        newPortalIndex.add(portal);
+        newProtectionIndex.add(portal);
+        return new PortalSnapshot(this.version + 1,
+                                  Collections.unmodifiableMap(newPortals),
+                                  newPortalIndex, newProtectionIndex);
+    }
+
+    /**
+     * @return a copy without the named portal, or this snapshot if there was
+     *     no such portal.
+     */
+    public PortalSnapshot withoutPortal(String name) {
+        AdvancedPortal removed = this.portals.get(name);
+        if (removed == null) {
+            return this;
+        }
+        Map<String, AdvancedPortal> newPortals = new HashMap<>(this.portals);
+        newPortals.remove(name);
+        PortalSpatialIndex newPortalIndex = this.portalIndex.copy();
+        PortalSpatialIndex newProtectionIndex = this.protectionIndex.copy();
+        newPortalIndex.remove(removed);
+        newProtectionIndex.remove(removed);
+        return new PortalSnapshot(this.version + 1,
+                                  Collections.unmodifiableMap(newPortals),
+                                  newPortalIndex, newProtectionIndex);
+    }
+
+    /**
+     * @return a copy with the protection index rebuilt for a new radius. The
+     *     portals themselves are unchanged so the version is kept.
+     */
+    public PortalSnapshot withProtectionRadius(int protectionRadius) {
+        PortalSpatialIndex newProtectionIndex =
+            new PortalSpatialIndex(protectionRadius);
+        for (AdvancedPortal portal : this.portals.values()) {
+            newProtectionIndex.add(portal);
+        }
+        return new PortalSnapshot(this.version, this.portals,
+                                  this.portalIndex, newProtectionIndex);
+    }
+}
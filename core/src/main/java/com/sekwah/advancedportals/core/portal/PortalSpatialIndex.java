@@ -0,0 +1,338 @@
+package com.sekwah.advancedportals.core.portal;
+
+import com.sekwah.advancedportals.core.serializeddata.BlockLocation;
+import java.util.*;
+
+/**
+ * Buckets portal bounding boxes by the chunk columns they overlap in each
+ * world, so a lookup only has to test the handful of portals sharing the
+ * queried column rather than every loaded portal.
+ *
+ * <p>Boxes can optionally be indexed already grown by a fixed number of blocks
+ * (e.g. the protection radius) which keeps queries using that same margin to a
+ * single bucket.
+ *
+ * <p>Not thread safe. Shared indexes are treated as read only, changes are
+ * made to a {@link #copy()} which is then published in place of the old one.
+ */
+public class PortalSpatialIndex {
+    private static final int CHUNK_SHIFT = 4;
+
+    /**
+     * Queries that would need to visit more columns than this just test every
+     * portal in the world instead.
+     */
+    private static final int MAX_QUERY_COLUMNS = 64;
+
+    private final int expansion;
+
+    private final Map<String, WorldIndex> worlds = new HashMap<>();
+
+    public PortalSpatialIndex() {
+        this(0);
+    }
+
+    /**
+     * @param expansion how many blocks each portal box is grown by in every
+     *     direction before being bucketed.
+     */
+    public PortalSpatialIndex(int expansion) {
+        this.expansion = Math.max(0, expansion);
+    }
+
+    /**
+     * @return an independent index holding the same portals.
+     */
+    public PortalSpatialIndex copy() {
+        PortalSpatialIndex copy = new PortalSpatialIndex(this.expansion);
+        for (Map.Entry<String, WorldIndex> entry : this.worlds.entrySet()) {
+            WorldIndex worldCopy = new WorldIndex();
+            worldCopy.portals.addAll(entry.getValue().portals);
+            for (Map.Entry<Long, List<AdvancedPortal>> column :
+                 entry.getValue().columns.entrySet()) {
+                worldCopy.columns.put(column.getKey(),
+                                      new ArrayList<>(column.getValue()));
+            }
+            copy.worlds.put(entry.getKey(), worldCopy);
+        }
+        return copy;
+    }
+
+    public int getExpansion() {
+        return this.expansion;
+    }
+
+    public void add(AdvancedPortal portal) {
+        String worldName = portal.getMinLoc().getWorldName();
+        WorldIndex worldIndex =
+            this.worlds.computeIfAbsent(worldName, key -> new WorldIndex());
+        worldIndex.portals.add(portal);
+
+        BlockLocation minLoc = portal.getMinLoc();
+        BlockLocation maxLoc = portal.getMaxLoc();
+        int minChunkX = (minLoc.getPosX() - this.expansion) >> CHUNK_SHIFT;
+        int minChunkZ = (minLoc.getPosZ() - this.expansion) >> CHUNK_SHIFT;
+        int maxChunkX = (maxLoc.getPosX() + this.expansion) >> CHUNK_SHIFT;
+        int maxChunkZ = (maxLoc.getPosZ() + this.expansion) >> CHUNK_SHIFT;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                worldIndex.columns
+                    .computeIfAbsent(columnKey(chunkX, chunkZ),
+                                     key -> new ArrayList<>(2))
+                    .add(portal);
+            }
+        }
+    }
+
+    public void remove(AdvancedPortal portal) {
+        String worldName = portal.getMinLoc().getWorldName();
+        WorldIndex worldIndex = this.worlds.get(worldName);
+        if (worldIndex == null || !worldIndex.portals.remove(portal)) {
+            return;
+        }
+
+        BlockLocation minLoc = portal.getMinLoc();
+        BlockLocation maxLoc = portal.getMaxLoc();
+        int minChunkX = (minLoc.getPosX() - this.expansion) >> CHUNK_SHIFT;
+        int minChunkZ = (minLoc.getPosZ() - this.expansion) >> CHUNK_SHIFT;
+        int maxChunkX = (maxLoc.getPosX() + this.expansion) >> CHUNK_SHIFT;
+        int maxChunkZ = (maxLoc.getPosZ() + this.expansion) >> CHUNK_SHIFT;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                long key = columnKey(chunkX, chunkZ);
+                List<AdvancedPortal> column = worldIndex.columns.get(key);
+                if (column != null) {
+                    column.remove(portal);
+                    if (column.isEmpty()) {
+                        worldIndex.columns.remove(key);
+                    }
+                }
+            }
+        }
+
+        if (worldIndex.portals.isEmpty()) {
+            this.worlds.remove(worldName);
+        }
+    }
+
+    public void clear() {
+        this.worlds.clear();
+    }
+
+    /**
+     * @return every portal whose (expanded) box overlaps the chunk column
+     *     containing the given block coordinates. The list must not be
+     *     modified.
+     */
+    public List<AdvancedPortal> getPortalsInColumn(String worldName, int posX,
+                                                   int posZ) {
+        WorldIndex worldIndex = this.worlds.get(worldName);
+        if (worldIndex == null) {
+            return Collections.emptyList();
+        }
+        List<AdvancedPortal> column = worldIndex.columns.get(
+            columnKey(posX >> CHUNK_SHIFT, posZ >> CHUNK_SHIFT));
+        return column == null ? Collections.emptyList() : column;
+    }
+
+    /**
+     * @return every portal indexed in the world. The list must not be
+     *     modified.
+     */
+    public List<AdvancedPortal> getPortalsInWorld(String worldName) {
+        WorldIndex worldIndex = this.worlds.get(worldName);
+        return worldIndex == null ? Collections.emptyList()
+                                  : worldIndex.portals;
+    }
+
+    /**
+     * Finds a portal containing the location once its box is grown by
+     * extraBlocks.
+     *
+     * @return the first matching portal or null if there are none.
+     */
+    public AdvancedPortal getPortalAt(BlockLocation loc, int extraBlocks) {
+        WorldIndex worldIndex = this.worlds.get(loc.getWorldName());
+        if (worldIndex == null) {
+            return null;
+        }
+
+        // Anything beyond the indexed expansion has to be covered by looking
+        // at the neighbouring columns too.
+        int margin = Math.max(0, extraBlocks - this.expansion);
+        int minChunkX = (loc.getPosX() - margin) >> CHUNK_SHIFT;
+        int minChunkZ = (loc.getPosZ() - margin) >> CHUNK_SHIFT;
+        int maxChunkX = (loc.getPosX() + margin) >> CHUNK_SHIFT;
+        int maxChunkZ = (loc.getPosZ() + margin) >> CHUNK_SHIFT;
+
+        if ((long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1)
+            > MAX_QUERY_COLUMNS) {
+            return findIn(worldIndex.portals, loc, extraBlocks);
+        }
+
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                List<AdvancedPortal> column =
+                    worldIndex.columns.get(columnKey(chunkX, chunkZ));
+                if (column != null) {
+                    AdvancedPortal portal = findIn(column, loc, extraBlocks);
+                    if (portal != null) {
+                        return portal;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return every portal containing the location once its box is grown by
+     *     range, each listed once.
+     */
+    public List<AdvancedPortal> getPortalsNear(BlockLocation loc, int range) {
+        WorldIndex worldIndex = this.worlds.get(loc.getWorldName());
+        if (worldIndex == null) {
+            return Collections.emptyList();
+        }
+
+        int margin = Math.max(0, range - this.expansion);
+        int minChunkX = (loc.getPosX() - margin) >> CHUNK_SHIFT;
+        int minChunkZ = (loc.getPosZ() - margin) >> CHUNK_SHIFT;
+        int maxChunkX = (loc.getPosX() + margin) >> CHUNK_SHIFT;
+        int maxChunkZ = (loc.getPosZ() + margin) >> CHUNK_SHIFT;
+
+        List<AdvancedPortal> found = new ArrayList<>();
+        if ((long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1)
+            > MAX_QUERY_COLUMNS) {
+            for (AdvancedPortal portal : worldIndex.portals) {
+                if (portal.isLocationInPortal(loc, range)) {
+                    found.add(portal);
+                }
+            }
+            return found;
+        }
+
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                List<AdvancedPortal> column =
+                    worldIndex.columns.get(columnKey(chunkX, chunkZ));
+                if (column == null) {
+                    continue;
+                }
+                for (AdvancedPortal portal : column) {
+                    // A portal spanning several columns is only taken from
+                    // the first one the query reaches
+                    if (chunkX == Math.max(minChunkX, minChunkX(portal))
+                        && chunkZ == Math.max(minChunkZ, minChunkZ(portal))
+                        && portal.isLocationInPortal(loc, range)) {
+                        found.add(portal);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Distance in blocks from a column of blocks to the closest portal box.
+     * Columns are searched a ring at a time outwards from the location,
+     * stopping once a ring can't hold anything closer than the best so far.
+     *
+     * @return 0 if any of the blocks are inside a portal, a lower bound of
+     *     at least maxDistance if nothing is that close or
+     *     {@link Double#POSITIVE_INFINITY} if the world has no portals.
+     */
+    public double getDistanceToNearest(String worldName, int posX, int minY,
+                                       int maxY, int posZ, int maxDistance) {
+        WorldIndex worldIndex = this.worlds.get(worldName);
+        if (worldIndex == null) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        int centreX = posX >> CHUNK_SHIFT;
+        int centreZ = posZ >> CHUNK_SHIFT;
+        long closestSq = Long.MAX_VALUE;
+        for (int ring = 0;; ring++) {
+            // Any block in this ring is at least this far away horizontally,
+            // less the margin portals were grown by when bucketed
+            long minDistance = ring == 0
+                ? 0
+                : Math.max(0, ((long) (ring - 1) << CHUNK_SHIFT) + 1
+                                  - this.expansion);
+            if (minDistance * minDistance >= closestSq) {
+                return Math.sqrt(closestSq);
+            }
+            if (minDistance >= maxDistance) {
+                return closestSq == Long.MAX_VALUE
+                    ? minDistance
+                    : Math.min(minDistance, Math.sqrt(closestSq));
+            }
+            for (int chunkX = centreX - ring; chunkX <= centreX + ring;
+                 chunkX++) {
+                // Only the edge of the ring, the inside was already searched
+                int step = chunkX == centreX - ring || chunkX == centreX + ring
+                    ? 1
+                    : Math.max(1, ring * 2);
+                for (int chunkZ = centreZ - ring; chunkZ <= centreZ + ring;
+                     chunkZ += step) {
+                    List<AdvancedPortal> column =
+                        worldIndex.columns.get(columnKey(chunkX, chunkZ));
+                    if (column == null) {
+                        continue;
+                    }
+                    for (AdvancedPortal portal : column) {
+                        long distanceSq =
+                            distanceSq(portal, posX, minY, maxY, posZ);
+                        if (distanceSq < closestSq) {
+                            closestSq = distanceSq;
+                            if (closestSq == 0) {
+                                return 0;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static long distanceSq(AdvancedPortal portal, int posX, int minY,
+                                   int maxY, int posZ) {
+        BlockLocation minLoc = portal.getMinLoc();
+        BlockLocation maxLoc = portal.getMaxLoc();
+        long dx = Math.max(
+            0, Math.max(minLoc.getPosX() - posX, posX - maxLoc.getPosX()));
+        long dy = Math.max(
+            0, Math.max(minLoc.getPosY() - maxY, minY - maxLoc.getPosY()));
+        long dz = Math.max(
+            0, Math.max(minLoc.getPosZ() - posZ, posZ - maxLoc.getPosZ()));
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private int minChunkX(AdvancedPortal portal) {
+        return (portal.getMinLoc().getPosX() - this.expansion) >> CHUNK_SHIFT;
+    }
+
+    private int minChunkZ(AdvancedPortal portal) {
+        return (portal.getMinLoc().getPosZ() - this.expansion) >> CHUNK_SHIFT;
+    }
+
+    private static AdvancedPortal findIn(List<AdvancedPortal> portals,
+                                         BlockLocation loc, int extraBlocks) {
+        for (AdvancedPortal portal : portals) {
+            if (portal.isLocationInPortal(loc, extraBlocks)) {
+                return portal;
+            }
+        }
+        return null;
+    }
+
+    private static long columnKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static class WorldIndex {
+        private final Map<Long, List<AdvancedPortal>> columns = new HashMap<>();
+
+        private final List<AdvancedPortal> portals = new ArrayList<>();
+    }
+}
@@ -0,0 +1,122 @@
+package com.sekwah.advancedportals.core.portal;
+
+import com.sekwah.advancedportals.core.serializeddata.BlockLocation;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Remembers which voxels inside a portal's bounds currently hold one of its
+ * trigger blocks.
+ *
+ * <p>Each voxel has a known bit and a trigger bit. Voxels start out unknown
+ * and are filled in the first time they are tested, which keeps world access
+ * on the thread that owns the region rather than on whatever thread loaded
+ * the portal. Block changes only clear the known bit so the next test reads
+ * the world again.
+ */
+public class PortalTriggerMask {
+    /**
+     * Portals larger than this many voxels are not masked, they just read the
+     * world every time as before.
+     */
+    private static final int MAX_VOLUME = 1 << 21;
+
+    public static final int UNKNOWN = -1;
+
+    public static final int NOT_TRIGGER = 0;
+
+    public static final int TRIGGER = 1;
+
+    private final int minX;
+
+    private final int minY;
+
+    private final int minZ;
+
+    private final int sizeX;
+
+    private final int sizeY;
+
+    private final int sizeZ;
+
+    private final AtomicLongArray known;
+
+    private final AtomicLongArray trigger;
+
+    private PortalTriggerMask(BlockLocation minLoc, int sizeX, int sizeY,
+                              int sizeZ) {
+        this.minX = minLoc.getPosX();
+        this.minY = minLoc.getPosY();
+        this.minZ = minLoc.getPosZ();
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        int words = (sizeX * sizeY * sizeZ + 63) >>> 6;
+        this.known = new AtomicLongArray(words);
+        this.trigger = new AtomicLongArray(words);
+    }
+
+    /**
+     * @return a new mask covering the bounds or null if the portal is too
+     *     large to be worth masking.
+     */
+    public static PortalTriggerMask create(BlockLocation minLoc,
+                                           BlockLocation maxLoc) {
+        long sizeX = (long) maxLoc.getPosX() - minLoc.getPosX() + 1;
+        long sizeY = (long) maxLoc.getPosY() - minLoc.getPosY() + 1;
+        long sizeZ = (long) maxLoc.getPosZ() - minLoc.getPosZ() + 1;
+        if (sizeX <= 0 || sizeY <= 0 || sizeZ <= 0
+            || sizeX * sizeY * sizeZ > MAX_VOLUME) {
+            return null;
+        }
+        return new PortalTriggerMask(minLoc, (int) sizeX, (int) sizeY,
+                                     (int) sizeZ);
+    }
+
+    /**
+     * @return the voxel index or -1 if the location is outside the mask.
+     */
+    public int indexOf(BlockLocation loc) {
+        int x = loc.getPosX() - this.minX;
+        int y = loc.getPosY() - this.minY;
+        int z = loc.getPosZ() - this.minZ;
+        if (x < 0 || y < 0 || z < 0 || x >= this.sizeX || y >= this.sizeY
+            || z >= this.sizeZ) {
+            return -1;
+        }
+        return (y * this.sizeZ + z) * this.sizeX + x;
+    }
+
+    /**
+     * @return {@link #TRIGGER}, {@link #NOT_TRIGGER} or {@link #UNKNOWN}
+     */
+    public int get(int index) {
+        long bit = 1L << index;
+        int word = index >>> 6;
+        if ((this.known.get(word) & bit) == 0) {
+            return UNKNOWN;
+        }
+        return (this.trigger.get(word) & bit) != 0 ? TRIGGER : NOT_TRIGGER;
+    }
+
+    public void set(int index, boolean isTrigger) {
+        long bit = 1L << index;
+        int word = index >>> 6;
+        if (isTrigger) {
+            this.trigger.accumulateAndGet(word, bit, (a, b) -> a | b);
+        } else {
+            this.trigger.accumulateAndGet(word, ~bit, (a, b) -> a & b);
+        }
+        this.known.accumulateAndGet(word, bit, (a, b) -> a | b);
+    }
+
+    public void invalidate(int index) {
+        this.known.accumulateAndGet(index >>> 6, ~(1L << index),
+                                    (a, b) -> a & b);
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < this.known.length(); i++) {
+            this.known.set(i, 0);
+        }
+    }
+}
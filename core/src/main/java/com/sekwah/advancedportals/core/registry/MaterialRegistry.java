@@ -0,0 +1,69 @@
+package com.sekwah.advancedportals.core.registry;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns material names into small dense int ids so hot paths can compare
+ * and store materials without touching strings.
+ *
+ * <p>Ids are handed out in the order names are first seen and stay stable for
+ * the lifetime of the server, so platforms should register their full
+ * material list up front.
+ */
+public final class MaterialRegistry {
+    public static final int UNKNOWN = -1;
+
+    private static final Map<String, Integer> materialIds =
+        new ConcurrentHashMap<>();
+
+    private static volatile String[] materialNames = new String[0];
+
+    private MaterialRegistry() {
+    }
+
+    /**
+     * @return the id for the material, registering it if it has not been
+     *     seen before.
+     */
+    public static int getId(String materialName) {
+        Integer id = materialIds.get(materialName);
+        if (id != null) {
+            return id;
+        }
+        return register(materialName);
+    }
+
+    /**
+     * @return the id for the material or {@link #UNKNOWN} if it has never
+     *     been registered.
+     */
+    public static int findId(String materialName) {
+        Integer id = materialIds.get(materialName);
+        return id == null ? UNKNOWN : id;
+    }
+
+    public static String getName(int id) {
+        String[] names = materialNames;
+        return id >= 0 && id < names.length ? names[id] : null;
+    }
+
+    public static int size() {
+        return materialNames.length;
+    }
+
+    private static synchronized int register(String materialName) {
+        Integer existing = materialIds.get(materialName);
+        if (existing != null) {
+            return existing;
+        }
+        String[] names = materialNames;
+        int id = names.length;
+        String[] newNames = Arrays.copyOf(names, id + 1);
+        newNames[id] = materialName;
+        materialNames = newNames;
+        materialIds.put(materialName, id);
+        return id;
+    }
+}
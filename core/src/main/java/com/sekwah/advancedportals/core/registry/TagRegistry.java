@@ -4,6 +4,7 @@ import com.google.inject.Inject;
 import com.sekwah.advancedportals.core.AdvancedPortalsCore;
 import com.sekwah.advancedportals.core.warphandler.Tag;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Allows a portal to register a tag and add a handler. If a plugin wants to
@@ -27,6 +28,11 @@ public class TagRegistry {
     @Inject
     private AdvancedPortalsCore pluginCore;
 
+    /**
+     * Bumped on every registration so compiled portals know to rebuild.
+     */
+    private final AtomicLong version = new AtomicLong();
+
     /**
      * Portals to trigger when a portal is activated
      *
@@ -112,9 +118,14 @@ public class TagRegistry {
             Tag.Creation tagCreation = (Tag.Creation) tag;
             this.creationTags.put(tagName, tagCreation);
         }
+        this.version.incrementAndGet();
         return true;
     }
 
+    public long getVersion() {
+        return this.version.get();
+    }
+
     public Tag getTag(String tagName) {
         return this.tagMap.get(tagName);
     }
@@ -56,5 +56,34 @@ public interface ConfigRepository {
 
     boolean getDisableGatewayBeam();
 
+    /**
+     * @return if edits to portal and destination files should be picked up
+     *     without running a reload.
+     */
+    boolean getAutoReload();
+
+    /**
+     * @return how long resolved placeholder values are reused for, 0 or less
+     *     to always look them up.
+     */
+    int getPlaceholderCacheMillis();
+
+    /**
+     * @return how often to write the metrics file, 0 or less to not write it.
+     */
+    int getMetricsExportSeconds();
+
+    /**
+     * @return how long scheduled tasks may run for each tick before the rest
+     *     wait for the next one, 0 or less for no limit.
+     */
+    int getSchedulerTickBudgetMillis();
+
+    /**
+     * @return if the show commands should use display entities instead of
+     *     particles where the server supports them.
+     */
+    boolean getDisplayEntityOutlines();
+
     void importConfig(Config config);
 }
@@ -7,6 +7,10 @@ public interface IJsonRepository<T> {
 
     boolean containsKey(String name);
 
+    long getFileSize(String name);
+
+    long getLastModified(String name);
+
     boolean delete(String name);
 
     T get(String name);
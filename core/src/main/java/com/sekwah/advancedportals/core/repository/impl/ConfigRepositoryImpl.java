@@ -10,7 +10,7 @@ import java.util.HashMap;
 @Singleton
 public class ConfigRepositoryImpl implements ConfigRepository {
     private HashMap<String, Config> configs;
-    private Config config;
+    private volatile Config config;
     private DataStorage dataStorage;
 
     public ConfigRepositoryImpl() {
@@ -115,13 +115,37 @@ public class ConfigRepositoryImpl implements ConfigRepository {
         return this.config.disableGatewayBeam;
     }
 
+    @Override
+    public boolean getAutoReload() {
+        return this.config.autoReload;
+    }
+
+    @Override
+    public int getPlaceholderCacheMillis() {
+        return this.config.placeholderCacheMillis;
+    }
+
+    @Override
+    public int getMetricsExportSeconds() {
+        return this.config.metricsExportSeconds;
+    }
+
+    @Override
+    public int getSchedulerTickBudgetMillis() {
+        return this.config.schedulerTickBudgetMillis;
+    }
+
+    @Override
+    public boolean getDisplayEntityOutlines() {
+        return this.config.displayEntityOutlines;
+    }
+
     @Override
     public void loadConfig(DataStorage dataStorage) {
         this.dataStorage = dataStorage;
-        this.config = dataStorage.loadFile(Config.class, "config.yaml");
-        if (config == null) {
-            this.config = new Config();
-        }
+        // Built up locally so other threads never see a null config mid reload
+        Config loadedConfig = dataStorage.loadFile(Config.class, "config.yaml");
+        this.config = loadedConfig == null ? new Config() : loadedConfig;
     }
 
     @Override
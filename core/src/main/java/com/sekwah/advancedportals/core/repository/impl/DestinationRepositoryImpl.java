@@ -26,6 +26,16 @@ public class DestinationRepositoryImpl implements IDestinationRepository {
         return dataStorage.fileExists(fileLocation + name + ".yaml");
     }
 
+    @Override
+    public long getFileSize(String name) {
+        return dataStorage.getFileSize(fileLocation + name + ".yaml");
+    }
+
+    @Override
+    public long getLastModified(String name) {
+        return dataStorage.getLastModified(fileLocation + name + ".yaml");
+    }
+
     @Override
     public boolean delete(String name) {
         return dataStorage.deleteFile(fileLocation + name + ".yaml");
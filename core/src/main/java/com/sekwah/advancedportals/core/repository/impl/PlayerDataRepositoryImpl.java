@@ -22,6 +22,16 @@ public class PlayerDataRepositoryImpl implements IPlayerDataRepository {
         return false;
     }
 
+    @Override
+    public long getFileSize(String name) {
+        return dataStorage.getFileSize(fileLocation + name + ".yaml");
+    }
+
+    @Override
+    public long getLastModified(String name) {
+        return dataStorage.getLastModified(fileLocation + name + ".yaml");
+    }
+
     @Override
     public boolean delete(String name) {
         return dataStorage.deleteFile(fileLocation + name + ".yaml");
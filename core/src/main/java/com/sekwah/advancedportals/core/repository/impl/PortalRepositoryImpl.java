@@ -36,6 +36,16 @@ public class PortalRepositoryImpl implements IPortalRepository {
         return dataStorage.fileExists(fileLocation + name + ".yaml");
     }
 
+    @Override
+    public long getFileSize(String name) {
+        return dataStorage.getFileSize(fileLocation + name + ".yaml");
+    }
+
+    @Override
+    public long getLastModified(String name) {
+        return dataStorage.getLastModified(fileLocation + name + ".yaml");
+    }
+
     @Override
     public boolean delete(String name) {
         return dataStorage.deleteFile(fileLocation + name + ".yaml");
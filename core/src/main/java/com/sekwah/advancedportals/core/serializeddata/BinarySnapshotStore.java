@@ -0,0 +1,187 @@
+package com.sekwah.advancedportals.core.serializeddata;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.sekwah.advancedportals.core.util.FriendlyDataInput;
+import com.sekwah.advancedportals.core.util.FriendlyDataOutput;
+import com.sekwah.advancedportals.core.util.InfoLogger;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a single binary copy of a folder of yaml files so startup can read
+ * one file instead of parsing every document.
+ *
+ * <p>The yaml files are still the source of truth. Each entry remembers the
+ * last modified time and size of the file it came from, anything that no
+ * longer matches should be loaded from yaml again.
+ */
+@Singleton
+public class BinarySnapshotStore {
+    private static final int MAGIC = 0x41505342;
+
+    /**
+     * Bump whenever the encoding of any stored type changes.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    @Inject
+    private DataStorage dataStorage;
+
+    @Inject
+    private InfoLogger infoLogger;
+
+    /**
+     * Latest write requested for each location, later requests replace
+     * earlier ones that haven't run yet.
+     */
+    private final Map<String, Runnable> pendingWrites =
+        new ConcurrentHashMap<>();
+
+    private final ThreadPoolExecutor writeExecutor = new ThreadPoolExecutor(
+        0, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "AdvancedPortals-Snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    public static class Entry<T> {
+        private final long lastModified;
+
+        private final long size;
+
+        private final T value;
+
+        public Entry(long lastModified, long size, T value) {
+            this.lastModified = lastModified;
+            this.size = size;
+            this.value = value;
+        }
+
+        /**
+         * @return if the source file looks unchanged since this was stored.
+         */
+        public boolean matches(long lastModified, long size) {
+            return this.lastModified == lastModified && this.size == size
+                && size > 0;
+        }
+
+        public long getSize() {
+            return this.size;
+        }
+
+        public T getValue() {
+            return this.value;
+        }
+    }
+
+    /**
+     * @return the stored entries, or an empty map if there is no snapshot or
+     *     it could not be read.
+     */
+    public <T> Map<String, Entry<T>> read(
+        String location, Function<FriendlyDataInput, T> decoder) {
+        byte[] bytes = dataStorage.loadBytes(location);
+        if (bytes == null) {
+            return Collections.emptyMap();
+        }
+        try {
+            FriendlyDataInput in = new FriendlyDataInput(bytes);
+            if (in.readInt() != MAGIC || in.readVarInt() != FORMAT_VERSION) {
+                return Collections.emptyMap();
+            }
+            int count = in.readVarInt();
+            Map<String, Entry<T>> entries = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUtf();
+                long lastModified = in.readLong();
+                long size = in.readLong();
+                entries.put(name, new Entry<>(lastModified, size,
+                                              decoder.apply(in)));
+            }
+            return entries;
+        } catch (RuntimeException e) {
+            infoLogger.warning("Ignoring unreadable snapshot " + location + ": "
+                               + e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    public synchronized <T> boolean write(
+        String location, Map<String, Entry<T>> entries,
+        BiConsumer<T, FriendlyDataOutput> encoder) {
+        FriendlyDataOutput out = new FriendlyDataOutput();
+        try {
+            out.writeInt(MAGIC);
+            out.writeVarInt(FORMAT_VERSION);
+            out.writeVarInt(entries.size());
+            for (Map.Entry<String, Entry<T>> entry : entries.entrySet()) {
+                out.writeUtf(entry.getKey());
+                out.writeLong(entry.getValue().lastModified);
+                out.writeLong(entry.getValue().size);
+                encoder.accept(entry.getValue().value, out);
+            }
+        } catch (RuntimeException e) {
+            // Most likely an oversized string, yaml will still work so just
+            // drop the snapshot rather than keep a stale one around.
+            infoLogger.warning("Failed to encode snapshot " + location + ": "
+                               + e.getMessage());
+            if (dataStorage.fileExists(location)) {
+                dataStorage.deleteFile(location);
+            }
+            return false;
+        }
+        return dataStorage.storeBytes(out.toByteArray(), location);
+    }
+
+    /**
+     * Writes the snapshot on a background thread. The entries are only
+     * collected once the write actually runs.
+     */
+    public <T> void writeLater(String location,
+                               Supplier<Map<String, Entry<T>>> entries,
+                               BiConsumer<T, FriendlyDataOutput> encoder) {
+        Runnable write = () -> write(location, entries.get(), encoder);
+        if (pendingWrites.put(location, write) != null) {
+            return;
+        }
+        try {
+            writeExecutor.execute(() -> runPending(location));
+        } catch (RejectedExecutionException e) {
+            runPending(location);
+        }
+    }
+
+    private void runPending(String location) {
+        Runnable write = pendingWrites.remove(location);
+        if (write != null) {
+            write.run();
+        }
+    }
+
+    /**
+     * Stops the background writer, waiting for any write it is part way
+     * through, then runs anything still queued on the calling thread. Used
+     * on shutdown, later writes run straight away.
+     */
+    public void flush() {
+        writeExecutor.shutdown();
+        try {
+            writeExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (String location : pendingWrites.keySet()) {
+            runPending(location);
+        }
+    }
+}
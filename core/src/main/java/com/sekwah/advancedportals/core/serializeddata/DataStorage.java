@@ -2,13 +2,18 @@ package com.sekwah.advancedportals.core.serializeddata;
 
 import com.google.inject.Inject;
 import com.sekwah.advancedportals.core.AdvancedPortalsCore;
+import com.sekwah.advancedportals.core.metrics.Metrics;
 import com.sekwah.advancedportals.core.util.InfoLogger;
 import java.io.*;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.Yaml;
@@ -24,15 +29,37 @@ public class DataStorage {
     @Inject
     private InfoLogger infoLogger;
 
+    @Inject
+    private Metrics metrics;
+
     public DataStorage(File dataStorageLoc) {
         this.dataFolder = dataStorageLoc;
     }
 
+    public File getDataFolder() {
+        return this.dataFolder;
+    }
+
+    /**
+     * Yaml instances aren't thread safe so each thread gets its own, but they
+     * are only ever set up once per class per thread.
+     */
+    private final Map<Class<?>, ThreadLocal<Yaml>> yamlCache =
+        new ConcurrentHashMap<>();
+
     private Yaml getYaml(Class<? extends Object> clazz) {
+        return yamlCache
+            .computeIfAbsent(
+                clazz, key -> ThreadLocal.withInitial(() -> createYaml(key)))
+            .get();
+    }
+
+    private Yaml createYaml(Class<? extends Object> clazz) {
         LoaderOptions loaderOptions = new LoaderOptions();
 
+        String className = clazz.getName();
         TagInspector tagInspector =
-            tag -> tag.getClassName().equals(clazz.getName());
+            tag -> tag.getClassName().equals(className);
 
         loaderOptions.setTagInspector(tagInspector);
 
@@ -63,6 +90,15 @@ public class DataStorage {
     }
 
     public <T> T loadFile(Class<T> dataHolder, String location) {
+        long start = System.nanoTime();
+        try {
+            return loadYaml(dataHolder, location);
+        } finally {
+            metrics.getStorageLoad().recordSince(start);
+        }
+    }
+
+    private <T> T loadYaml(Class<T> dataHolder, String location) {
         InputStream yamlResource = this.loadResource(location);
         if (yamlResource == null) {
             try {
@@ -85,6 +121,15 @@ public class DataStorage {
     }
 
     public boolean storeFile(Object dataHolder, String location) {
+        long start = System.nanoTime();
+        try {
+            return storeYaml(dataHolder, location);
+        } finally {
+            metrics.getStorageStore().recordSince(start);
+        }
+    }
+
+    private boolean storeYaml(Object dataHolder, String location) {
         Yaml yaml = getYaml(dataHolder.getClass());
         File outFile = new File(this.dataFolder, location);
         if (!outFile.getParentFile().exists()
@@ -102,6 +147,74 @@ public class DataStorage {
         return false;
     }
 
+    /**
+     * @return the raw contents of the file, or null if it does not exist or
+     *     could not be read.
+     */
+    public byte[] loadBytes(String location) {
+        long start = System.nanoTime();
+        try {
+            return readBytes(location);
+        } finally {
+            metrics.getStorageLoad().recordSince(start);
+        }
+    }
+
+    private byte[] readBytes(String location) {
+        File inFile = new File(this.dataFolder, location);
+        if (!inFile.isFile()) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(inFile.toPath());
+        } catch (IOException e) {
+            infoLogger.warning("Failed to read file: " + location);
+            return null;
+        }
+    }
+
+    /**
+     * Writes to a temporary file first and moves it over the old one so a
+     * crash mid write can't leave a truncated file behind.
+     */
+    public boolean storeBytes(byte[] bytes, String location) {
+        long start = System.nanoTime();
+        try {
+            return writeBytes(bytes, location);
+        } finally {
+            metrics.getStorageStore().recordSince(start);
+        }
+    }
+
+    /**
+     * Same as {@link #storeBytes} without being recorded in the storage
+     * metrics, for the metrics export so it doesn't measure itself.
+     */
+    public boolean writeBytes(byte[] bytes, String location) {
+        File outFile = new File(this.dataFolder, location);
+        if (!outFile.getParentFile().exists()
+            && !outFile.getParentFile().mkdirs()) {
+            infoLogger.warning("Failed to create folder for file: " + location);
+        }
+        File tempFile = new File(outFile.getParentFile(),
+                                 outFile.getName() + ".tmp");
+        try {
+            Files.write(tempFile.toPath(), bytes);
+            try {
+                Files.move(tempFile.toPath(), outFile.toPath(),
+                           StandardCopyOption.REPLACE_EXISTING,
+                           StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), outFile.toPath(),
+                           StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException e) {
+            infoLogger.error(e);
+        }
+        return false;
+    }
+
     /**
      * Copies the specified file out of the plugin and into the plugins folder.
      *
@@ -214,6 +327,21 @@ public class DataStorage {
         return new File(this.dataFolder, name).exists();
     }
 
+    /**
+     * @return the size of the file in bytes, or 0 if it does not exist.
+     */
+    public long getFileSize(String name) {
+        return new File(this.dataFolder, name).length();
+    }
+
+    /**
+     * @return the last modified time in milliseconds, or 0 if the file does
+     *     not exist.
+     */
+    public long getLastModified(String name) {
+        return new File(this.dataFolder, name).lastModified();
+    }
+
     public List<String> listAllFiles(String fileLocation,
                                      boolean trimExtension) {
         return listAllFiles(fileLocation, trimExtension, null);
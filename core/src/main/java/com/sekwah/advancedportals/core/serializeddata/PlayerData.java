@@ -49,6 +49,24 @@ public class PlayerData {
 
     private String selectedPortal;
 
+    /**
+     * @return an independent copy, e.g. to save while the original is still
+     *     in use.
+     */
+    public PlayerData copy() {
+        PlayerData copy = new PlayerData();
+        copy.pos1 = this.pos1;
+        copy.pos2 = this.pos2;
+        copy.portalVisible = this.portalVisible;
+        copy.destiVisible = this.destiVisible;
+        copy.inPortal = this.inPortal;
+        copy.joinCooldown = this.joinCooldown;
+        copy.portalBlockCooldown = this.portalBlockCooldown;
+        copy.perPortalCooldowns = new HashMap<>(this.perPortalCooldowns);
+        copy.selectedPortal = this.selectedPortal;
+        return copy;
+    }
+
     public BlockLocation getPos1() {
         return pos1;
     }
@@ -2,6 +2,9 @@ package com.sekwah.advancedportals.core.serializeddata;
 
 import com.google.inject.Inject;
 import com.sekwah.advancedportals.core.util.InfoLogger;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
@@ -15,6 +18,19 @@ import org.yaml.snakeyaml.nodes.*;
 
 public class ReflectiveConstructor<T> extends Constructor {
     // private static final Unsafe unsafe = getUnsafe(); // Removed due to access restrictions
+
+    /**
+     * Constructor and field setters worked out once per class rather than
+     * for every mapping node that gets loaded.
+     */
+    private static final ClassValue<ClassMeta> CLASS_META =
+        new ClassValue<ClassMeta>() {
+            @Override
+            protected ClassMeta computeValue(Class<?> type) {
+                return new ClassMeta(type);
+            }
+        };
+
     private final Class<T> clazz;
 
     @Inject
@@ -99,11 +115,12 @@ public class ReflectiveConstructor<T> extends Constructor {
             return values;
         }
 
+        ClassMeta classMeta = CLASS_META.get(currentClass);
         try {
             Object instance;
-            try {
-                instance = currentClass.getDeclaredConstructor().newInstance();
-            } catch (NoSuchMethodException e) {
+            if (classMeta.constructor != null) {
+                instance = classMeta.newInstance();
+            } else {
                 infoLogger.info("No default constructor found for "
                                 + currentClass.getName()
                                 + ", using unsafe allocation.");
@@ -113,30 +130,25 @@ public class ReflectiveConstructor<T> extends Constructor {
             Map<String, Object> mappedValues =
                 mapMappingNode(currentClass, mappingNode);
 
-            Field[] fields = getAllFields(currentClass);
-            for (Field field : fields) {
-                if (Modifier.isTransient(field.getModifiers())) {
-                    continue;
-                }
-
+            for (FieldSetter field : classMeta.fields) {
                 try {
-                    if (mappedValues.containsKey(field.getName())) {
-                        Object value = mappedValues.get(field.getName());
+                    if (mappedValues.containsKey(field.name)) {
+                        Object value = mappedValues.get(field.name);
 
                         setField(instance, field, value);
                     } else {
-                        infoLogger.warning("Field " + field.getName()
+                        infoLogger.warning("Field " + field.name
                                            + " not found in mapping node "
                                            + instance.getClass().getName()
                                            + " will use default value.");
                     }
                 } catch (Exception e) {
-                    infoLogger.warning("Failed to set field " + field.getName()
+                    infoLogger.warning("Failed to set field " + field.name
                                        + " in " + currentClass.getName() + ": "
                                        + e.getMessage());
                     infoLogger.error(e);
                     throw new RuntimeException("Failed to set field "
-                                                   + field.getName() + " in "
+                                                   + field.name + " in "
                                                    + currentClass.getName(),
                                                e);
                 }
@@ -150,17 +162,6 @@ public class ReflectiveConstructor<T> extends Constructor {
         }
     }
 
-    private Field[] getAllFields(Class<?> clazz) {
-        Map<String, Field> fields = new HashMap<>();
-        while (clazz != null) {
-            for (Field field : clazz.getDeclaredFields()) {
-                fields.putIfAbsent(field.getName(), field);
-            }
-            clazz = clazz.getSuperclass();
-        }
-        return fields.values().toArray(new Field[0]);
-    }
-
     private Object constructFromScalarNode(ScalarNode scalarNode) {
         return super.constructObject(scalarNode);
     }
@@ -178,12 +179,13 @@ public class ReflectiveConstructor<T> extends Constructor {
                 values.put(key, constructFromScalarNode(scalarNode));
             } else if (node instanceof MappingNode) {
                 MappingNode mappingNodeChild = (MappingNode) node;
-                try {
-                    Field field = currentClass.getDeclaredField(key);
-                    Object value = constructFromMappingNode(field.getType(),
-                                                            mappingNodeChild);
+                FieldSetter field =
+                    CLASS_META.get(currentClass).fieldsByName.get(key);
+                if (field != null) {
+                    Object value =
+                        constructFromMappingNode(field.type, mappingNodeChild);
                     values.put(key, value);
-                } catch (NoSuchFieldException e) {
+                } else {
                     infoLogger.warning("Field " + key + " not found on "
                                        + currentClass.getName());
                 }
@@ -198,21 +200,25 @@ public class ReflectiveConstructor<T> extends Constructor {
     /**
      * Check and convert value types e.g. double to float
      */
-    private void setField(Object instance, Field field, Object value)
-        throws IllegalAccessException {
+    private void setField(Object instance, FieldSetter field, Object value) {
         // Check for numeric type compatibility and cast if necessary
-        if (field.getType() == float.class &&value instanceof Double) {
+        if (field.type == float.class && value instanceof Double) {
             value = ((Double) value).floatValue();
-        } else if (field.getType() == int.class &&value instanceof Long) {
+        } else if (field.type == int.class && value instanceof Long) {
             value = ((Long) value).intValue();
-        } else if (field.getType() == short.class &&value instanceof Integer) {
+        } else if (field.type == short.class && value instanceof Integer) {
             value = ((Integer) value).shortValue();
-        } else if (field.getType() == byte.class && value instanceof Integer) {
+        } else if (field.type == byte.class && value instanceof Integer) {
             value = ((Integer) value).byteValue();
         }
 
-        field.setAccessible(true);
-        field.set(instance, value);
+        try {
+            field.setter.invokeExact(instance, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     private static Object createInstanceWithoutConstructor(Class<?> clazz) {
@@ -224,4 +230,86 @@ public class ReflectiveConstructor<T> extends Constructor {
             throw new RuntimeException("Failed to create instance of " + clazz.getName(), e);
         }
     }
+
+    private static final class ClassMeta {
+        private final MethodHandle constructor;
+
+        /**
+         * Every non static, non transient field including inherited ones.
+         */
+        private final FieldSetter[] fields;
+
+        private final Map<String, FieldSetter> fieldsByName = new HashMap<>();
+
+        private ClassMeta(Class<?> type) {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle foundConstructor = null;
+            try {
+                java.lang.reflect.Constructor<?> declaredConstructor =
+                    type.getDeclaredConstructor();
+                declaredConstructor.setAccessible(true);
+                foundConstructor =
+                    lookup.unreflectConstructor(declaredConstructor)
+                        .asType(MethodType.methodType(Object.class));
+            } catch (NoSuchMethodException | IllegalAccessException
+                     | RuntimeException ignored) {
+            }
+            this.constructor = foundConstructor;
+
+            Class<?> current = type;
+            while (current != null) {
+                for (Field field : current.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers)
+                        || Modifier.isTransient(modifiers)
+                        || this.fieldsByName.containsKey(field.getName())) {
+                        continue;
+                    }
+                    try {
+                        field.setAccessible(true);
+                        MethodHandle setter =
+                            lookup.unreflectSetter(field).asType(
+                                MethodType.methodType(void.class, Object.class,
+                                                      Object.class));
+                        this.fieldsByName.put(
+                            field.getName(),
+                            new FieldSetter(field.getName(), field.getType(),
+                                            setter));
+                    } catch (IllegalAccessException | RuntimeException e) {
+                        throw new IllegalStateException(
+                            "Cannot access field " + field.getName() + " on "
+                                + type.getName(),
+                            e);
+                    }
+                }
+                current = current.getSuperclass();
+            }
+            this.fields =
+                this.fieldsByName.values().toArray(new FieldSetter[0]);
+        }
+
+        private Object newInstance() {
+            try {
+                return (Object) this.constructor.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static final class FieldSetter {
+        private final String name;
+
+        private final Class<?> type;
+
+        private final MethodHandle setter;
+
+        private FieldSetter(String name, Class<?> type, MethodHandle setter) {
+            this.name = name;
+            this.type = type;
+            this.setter = setter;
+        }
+    }
 }
@@ -45,4 +45,14 @@ public class Config {
     public WarpEffectConfig warpEffect = new WarpEffectConfig();
 
     public boolean disableGatewayBeam = true;
+
+    public boolean autoReload = false;
+
+    public int placeholderCacheMillis = 0;
+
+    public int metricsExportSeconds = 0;
+
+    public int schedulerTickBudgetMillis = 0;
+
+    public boolean displayEntityOutlines = false;
 }
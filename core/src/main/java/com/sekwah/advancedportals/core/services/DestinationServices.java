@@ -2,6 +2,7 @@ package com.sekwah.advancedportals.core.services;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.sekwah.advancedportals.core.AdvancedPortalsCore;
 import com.sekwah.advancedportals.core.connector.containers.PlayerContainer;
 import com.sekwah.advancedportals.core.destination.Destination;
 import com.sekwah.advancedportals.core.effect.WarpEffect;
@@ -9,11 +10,15 @@ import com.sekwah.advancedportals.core.registry.TagRegistry;
 import com.sekwah.advancedportals.core.registry.WarpEffectRegistry;
 import com.sekwah.advancedportals.core.repository.ConfigRepository;
 import com.sekwah.advancedportals.core.repository.IDestinationRepository;
+import com.sekwah.advancedportals.core.serializeddata.BinarySnapshotStore;
 import com.sekwah.advancedportals.core.serializeddata.DataTag;
 import com.sekwah.advancedportals.core.serializeddata.PlayerLocation;
+import com.sekwah.advancedportals.core.util.InfoLogger;
 import com.sekwah.advancedportals.core.util.Lang;
+import com.sekwah.advancedportals.core.util.ParallelLoader;
 import com.sekwah.advancedportals.core.warphandler.Tag;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,7 +37,33 @@ public class DestinationServices {
     @Inject
     TagRegistry tagRegistry;
 
-    private final Map<String, Destination> destinationCache = new HashMap<>();
+    @Inject
+    private InfoLogger infoLogger;
+
+    @Inject
+    private BinarySnapshotStore binarySnapshotStore;
+
+    private static final String SNAPSHOT_FILE = "cache/destinations.bin";
+
+    /**
+     * Never modified in place, writers publish an updated copy so lookups
+     * from any thread need no locking.
+     */
+    private volatile Map<String, Destination> destinationCache =
+        Collections.emptyMap();
+
+    /**
+     * Same destinations as the cache along with the size and last modified
+     * time of their files, to tell which need parsing again on reload.
+     */
+    private volatile Map<String, BinarySnapshotStore.Entry<Destination>>
+        loadedEntries = Collections.emptyMap();
+
+    /**
+     * Held while destination files are listed, read, written or deleted so a
+     * reload never publishes a listing that misses a create or remove.
+     */
+    private final Object fileLock = new Object();
 
     public List<String> getDestinationNames() {
         return destinationRepository.getAllNames();
@@ -42,15 +73,132 @@ public class DestinationServices {
         return new ArrayList<>(destinationCache.values());
     }
 
+    /**
+     * Loads every destination file, only parsing the ones that changed since
+     * they were last loaded. Safe to call off the main thread.
+     */
     public void loadDestinations() {
+        synchronized (this.fileLock) {
+            reloadDestinations();
+        }
+    }
+
+    private void reloadDestinations() {
+        long startTime = System.nanoTime();
         List<String> destinationNames = destinationRepository.getAllNames();
-        destinationCache.clear();
+        Map<String, BinarySnapshotStore.Entry<Destination>> known =
+            this.loadedEntries;
+        boolean fromDisk = known.isEmpty();
+        if (fromDisk) {
+            known = binarySnapshotStore.read(SNAPSHOT_FILE, Destination::read);
+        }
+
+        Map<String, BinarySnapshotStore.Entry<Destination>> entries =
+            new HashMap<>();
+        List<String> changedNames = new ArrayList<>();
         for (String name : destinationNames) {
-            Destination destination = destinationRepository.get(name);
-            destinationCache.put(name, destination);
+            BinarySnapshotStore.Entry<Destination> entry = known.get(name);
+            if (entry != null
+                && entry.matches(destinationRepository.getLastModified(name),
+                                 destinationRepository.getFileSize(name))) {
+                if (fromDisk) {
+                    AdvancedPortalsCore.getInstance()
+                        .getModule()
+                        .getInjector()
+                        .injectMembers(entry.getValue());
+                }
+                entries.put(name, entry);
+            } else {
+                changedNames.add(name);
+            }
+        }
+        int unchanged = entries.size();
+
+        entries.putAll(
+            ParallelLoader.loadAll(changedNames, this::loadEntry, infoLogger));
+        long parsedTime = System.nanoTime();
+
+        long bytesRead = 0;
+        Map<String, Destination> destinations = new HashMap<>();
+        for (Map.Entry<String, BinarySnapshotStore.Entry<Destination>> entry :
+             entries.entrySet()) {
+            destinations.put(entry.getKey(), entry.getValue().getValue());
+        }
+        for (String name : changedNames) {
+            BinarySnapshotStore.Entry<Destination> entry = entries.get(name);
+            if (entry != null) {
+                bytesRead += entry.getSize();
+            }
+        }
+
+        boolean changed =
+            !changedNames.isEmpty() || known.size() != entries.size();
+        if (fromDisk || changed) {
+            synchronized (this) {
+                loadedEntries = Collections.unmodifiableMap(entries);
+                destinationCache = Collections.unmodifiableMap(destinations);
+            }
+        }
+        long indexedTime = System.nanoTime();
+
+        infoLogger.info(ParallelLoader.formatReport(
+            "logger.loadtype.destinations", destinations.size(), unchanged,
+            changedNames.size(), bytesRead,
+            ParallelLoader.getThreadCount(changedNames.size()),
+            parsedTime - startTime, indexedTime - parsedTime));
+
+        if (changed) {
+            saveBinarySnapshot();
         }
     }
 
+    private BinarySnapshotStore.Entry<Destination> loadEntry(String name) {
+        long lastModified = destinationRepository.getLastModified(name);
+        long size = destinationRepository.getFileSize(name);
+        Destination destination = destinationRepository.get(name);
+        if (destination == null) {
+            return null;
+        }
+        return new BinarySnapshotStore.Entry<>(lastModified, size, destination);
+    }
+
+    /**
+     * Queues the binary snapshot of all destinations to be rewritten in the
+     * background.
+     */
+    public void saveBinarySnapshot() {
+        binarySnapshotStore.writeLater(SNAPSHOT_FILE, () -> this.loadedEntries,
+                                       Destination::write);
+    }
+
+    private synchronized void putCached(String name, Destination destination) {
+        Map<String, Destination> destinations = new HashMap<>(destinationCache);
+        destinations.put(name, destination);
+        destinationCache = Collections.unmodifiableMap(destinations);
+
+        Map<String, BinarySnapshotStore.Entry<Destination>> entries =
+            new HashMap<>(loadedEntries);
+        entries.put(name, new BinarySnapshotStore.Entry<>(
+                              destinationRepository.getLastModified(name),
+                              destinationRepository.getFileSize(name),
+                              destination));
+        loadedEntries = Collections.unmodifiableMap(entries);
+    }
+
+    private synchronized void removeCached(String name) {
+        if (!destinationCache.containsKey(name)) {
+            return;
+        }
+        Map<String, Destination> destinations = new HashMap<>(destinationCache);
+        destinations.remove(name);
+        destinationCache = Collections.unmodifiableMap(destinations);
+
+        Map<String, BinarySnapshotStore.Entry<Destination>> entries =
+            new HashMap<>(loadedEntries);
+        entries.remove(name);
+        loadedEntries = Collections.unmodifiableMap(entries);
+    }
+
     public Destination createDesti(PlayerLocation playerLocation,
                                    List<DataTag> tags) {
         return createDesti(null, playerLocation, tags);
@@ -80,7 +228,16 @@ public class DestinationServices {
                 player.sendMessage(Lang.getNegativePrefix()
                                    + Lang.translate("command.error.noname"));
             return null;
-        } else if (this.destinationRepository.containsKey(name)) {
+        }
+        synchronized (this.fileLock) {
+            return createDesti(player, playerLocation, tags, name);
+        }
+    }
+
+    private Destination createDesti(PlayerContainer player,
+                                    PlayerLocation playerLocation,
+                                    List<DataTag> tags, String name) {
+        if (this.destinationRepository.containsKey(name)) {
             if (player != null)
                 player.sendMessage(Lang.getNegativePrefix()
                                    + Lang.translateInsertVariables(
@@ -103,7 +260,8 @@ public class DestinationServices {
         }
         try {
             if (this.destinationRepository.save(name, desti)) {
-                this.destinationCache.put(name, desti);
+                this.putCached(name, desti);
+                this.saveBinarySnapshot();
             } else {
                 return null;
             }
@@ -117,12 +275,15 @@ public class DestinationServices {
 
     public boolean removeDestination(String name,
                                      PlayerContainer playerContainer) {
-        this.destinationCache.remove(name);
-        if (this.destinationRepository.containsKey(name)) {
-            this.destinationRepository.delete(name);
-            return true;
+        synchronized (this.fileLock) {
+            this.removeCached(name);
+            if (this.destinationRepository.containsKey(name)) {
+                this.destinationRepository.delete(name);
+                this.saveBinarySnapshot();
+                return true;
+            }
+            return false;
         }
-        return false;
     }
 
     public Destination getDestination(String name) {
@@ -134,25 +295,29 @@ public class DestinationServices {
         return teleportToDestination(name, playerContainer, false);
     }
 
+    /**
+     * Served entirely from the in memory cache so no files are read here.
+     *
+     * <p>The cache is the source of truth while the server is running. It is
+     * filled from disk by {@link #loadDestinations()} on startup and reload,
+     * and {@link #createDesti} / {@link #removeDestination} update it at the
+     * same time as writing through to disk. Changes made directly to the
+     * files in desti/ are only seen after the next reload.
+     */
     public boolean teleportToDestination(String name, PlayerContainer player,
                                          boolean doEffect) {
-        if (this.destinationRepository.containsKey(name)) {
-            if (player.getServer().getWorld(this.destinationRepository.get(name)
-                                                .getLoc()
-                                                .getWorldName())
-                == null) {
-                player.sendMessage(
-                    Lang.getNegativePrefix()
-                    + Lang.translateInsertVariables(
-                        "desti.error.invalidworld",
-                        destinationRepository.get(name).getName(),
-                        destinationRepository.get(name)
-                            .getLoc()
-                            .getWorldName()));
+        Destination destination = this.destinationCache.get(name);
+        if (destination != null) {
+            String worldName = destination.getLoc().getWorldName();
+            if (player.getServer().getWorld(worldName) == null) {
+                player.sendMessage(Lang.getNegativePrefix()
+                                   + Lang.translateInsertVariables(
+                                       "desti.error.invalidworld",
+                                       destination.getName(), worldName));
                 return false;
             }
 
-            player.teleport(this.destinationRepository.get(name).getLoc());
+            player.teleport(destination.getLoc());
             if (doEffect && configRepository.getWarpEffectEnabled()) {
                 WarpEffect.Visual warpEffectVisual =
                     warpEffectRegistry.getVisualEffect(
@@ -0,0 +1,64 @@
+package com.sekwah.advancedportals.core.services;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.sekwah.advancedportals.core.repository.ConfigRepository;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Remembers resolved placeholder values per player for a short time, for
+ * placeholder expansions that are slow to look up.
+ *
+ * <p>Disabled unless {@code placeholderCacheMillis} is set in the config.
+ */
+@Singleton
+public class PlaceholderCache {
+    @Inject
+    private ConfigRepository configRepository;
+
+    private final Map<UUID, Map<String, CachedValue>> playerValues =
+        new ConcurrentHashMap<>();
+
+    /**
+     * @param resolver looks up the value when there isn't a fresh one cached
+     */
+    public String resolve(UUID uuid, String placeholder,
+                          Function<String, String> resolver) {
+        long ttlMillis = configRepository.getPlaceholderCacheMillis();
+        if (ttlMillis <= 0) {
+            return resolver.apply(placeholder);
+        }
+        Map<String, CachedValue> values = playerValues.computeIfAbsent(
+            uuid, key -> new ConcurrentHashMap<>());
+        long now = System.nanoTime();
+        CachedValue cached = values.get(placeholder);
+        if (cached != null && now - cached.resolvedAt < ttlMillis * 1000000L) {
+            return cached.value;
+        }
+        String value = resolver.apply(placeholder);
+        values.put(placeholder, new CachedValue(value, now));
+        return value;
+    }
+
+    public void playerLeave(UUID uuid) {
+        playerValues.remove(uuid);
+    }
+
+    public void clear() {
+        playerValues.clear();
+    }
+
+    private static class CachedValue {
+        private final String value;
+
+        private final long resolvedAt;
+
+        private CachedValue(String value, long resolvedAt) {
+            this.value = value;
+            this.resolvedAt = resolvedAt;
+        }
+    }
+}
@@ -8,16 +8,46 @@ import com.sekwah.advancedportals.core.repository.IPlayerDataRepository;
 import com.sekwah.advancedportals.core.serializeddata.BlockLocation;
 import com.sekwah.advancedportals.core.serializeddata.PlayerData;
 import com.sekwah.advancedportals.core.util.Lang;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Singleton
 public final class PlayerDataServices {
     /**
-     * Possibly change to the cache map Aztec was talking about
+     * Read from every region thread on Folia so it has to be concurrent.
      */
-    private Map<UUID, PlayerData> tempDataMap = new HashMap<>();
+    private final Map<UUID, PlayerData> tempDataMap =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Data from players who have left that has not been written out yet. A
+     * player leaving again before the flush just replaces their entry.
+     */
+    private final Map<UUID, PlayerData> pendingSaves =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Data loaded at pre login, only moved into the main map once the player
+     * joins. Entries for logins that never get that far expire.
+     */
+    private final Map<UUID, Preload> preloads = new ConcurrentHashMap<>();
+
+    private static final long PRELOAD_EXPIRY_MILLIS = 60_000;
+
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+
+    private final ExecutorService saveExecutor =
+        Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AdvancedPortals-PlayerData");
+            thread.setDaemon(true);
+            return thread;
+        });
 
     @Inject
     private IPlayerDataRepository tempDataRepository;
@@ -26,15 +56,60 @@ public final class PlayerDataServices {
     private ConfigRepository configRepository;
 
     public PlayerData getPlayerData(PlayerContainer player) {
-        return tempDataMap.computeIfAbsent(player.getUUID(), uuid -> {
-            PlayerData tempData =
-                tempDataRepository.get(player.getUUID().toString());
+        UUID playerUUID = player.getUUID();
+        // Plain get first so the common hit never touches a bin lock
+        PlayerData playerData = tempDataMap.get(playerUUID);
+        if (playerData != null) {
+            return playerData;
+        }
+        return tempDataMap.computeIfAbsent(playerUUID, this::loadPlayerData);
+    }
 
-            if (tempData == null) {
-                tempData = new PlayerData();
-            }
-            return tempData;
-        });
+    /**
+     * @return the player's data if it is already loaded, without loading it.
+     */
+    public PlayerData getLoadedPlayerData(UUID playerUUID) {
+        return tempDataMap.get(playerUUID);
+    }
+
+    /**
+     * Loads a player's data ahead of them joining so the first
+     * {@link #getPlayerData} call doesn't have to touch the disk. Intended to
+     * be called off the main thread e.g. during async pre login.
+     */
+    public void preloadPlayerData(UUID playerUUID) {
+        long now = System.currentTimeMillis();
+        preloads.values().removeIf(preload -> preload.isExpired(now));
+        if (tempDataMap.containsKey(playerUUID)) {
+            return;
+        }
+        preloads.put(playerUUID,
+                     new Preload(readPlayerData(playerUUID), now));
+    }
+
+    private PlayerData loadPlayerData(UUID playerUUID) {
+        Preload preload = preloads.remove(playerUUID);
+        if (preload != null
+            && !preload.isExpired(System.currentTimeMillis())) {
+            return preload.playerData;
+        }
+        return readPlayerData(playerUUID);
+    }
+
+    private PlayerData readPlayerData(UUID playerUUID) {
+        // Rejoining before the last save was flushed, the queued copy is newer
+        // than whatever is on disk. It is left queued so the flush still
+        // writes it and copied so the flush never sees it change.
+        PlayerData pending = pendingSaves.get(playerUUID);
+        if (pending != null) {
+            return pending.copy();
+        }
+        PlayerData tempData = tempDataRepository.get(playerUUID.toString());
+
+        if (tempData == null) {
+            tempData = new PlayerData();
+        }
+        return tempData;
     }
 
     public void setJoinCooldown(PlayerContainer player) {
@@ -43,9 +118,61 @@ public final class PlayerDataServices {
     }
 
     public void playerLeave(PlayerContainer player) {
-        tempDataRepository.save(player.getUUID().toString(),
-                                getPlayerData(player));
-        tempDataMap.remove(player.getUUID());
+        queueSave(player.getUUID());
+    }
+
+    /**
+     * Drops data preloaded for a login that was then refused, e.g. by the
+     * whitelist or a ban, so it doesn't stay cached for a player who never
+     * joins. Nothing was changed so there is nothing to save.
+     */
+    public void loginDenied(UUID playerUUID) {
+        preloads.remove(playerUUID);
+    }
+
+    private void queueSave(UUID playerUUID) {
+        PlayerData playerData = tempDataMap.remove(playerUUID);
+        if (playerData != null) {
+            // A copy so a rejoin can't change what is being written, and a
+            // quick second leave always replaces the entry rather than
+            // matching it
+            pendingSaves.put(playerUUID, playerData.copy());
+            if (flushQueued.compareAndSet(false, true)) {
+                try {
+                    saveExecutor.execute(this::flushPendingSaves);
+                } catch (RejectedExecutionException e) {
+                    flushPendingSaves();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes out all queued player data on the calling thread.
+     */
+    public void flushPendingSaves() {
+        flushQueued.set(false);
+        for (Map.Entry<UUID, PlayerData> entry : pendingSaves.entrySet()) {
+            tempDataRepository.save(entry.getKey().toString(),
+                                    entry.getValue());
+            // Only removed once saved so a rejoin meanwhile still finds it,
+            // and kept if the player left again with newer data
+            pendingSaves.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Stops the background writer and saves anything still queued. Should be
+     * called once when shutting down after all players have left.
+     */
+    public void drainPendingSaves() {
+        saveExecutor.shutdown();
+        try {
+            saveExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushPendingSaves();
     }
 
     public void playerSelectorActivate(PlayerContainer player,
@@ -61,4 +188,19 @@ public final class PlayerDataServices {
             "portal.selector.poschange", leftClick ? "1" : "2",
             blockLoc.getPosX(), blockLoc.getPosY(), blockLoc.getPosZ()));
     }
+
+    private static class Preload {
+        private final PlayerData playerData;
+
+        private final long loadedTime;
+
+        private Preload(PlayerData playerData, long loadedTime) {
+            this.playerData = playerData;
+            this.loadedTime = loadedTime;
+        }
+
+        private boolean isExpired(long now) {
+            return now - this.loadedTime > PRELOAD_EXPIRY_MILLIS;
+        }
+    }
 }
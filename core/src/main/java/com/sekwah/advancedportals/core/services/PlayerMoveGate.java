@@ -0,0 +1,159 @@
+package com.sekwah.advancedportals.core.services;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.sekwah.advancedportals.core.metrics.Metrics;
+import com.sekwah.advancedportals.core.serializeddata.PlayerData;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Filters out move events that cannot change which portal a player is in.
+ *
+ * <p>Portal checks only look at the block the player's feet are in and the
+ * block at the top of the player, so as long as both of those and the world
+ * are unchanged (and no portals have been added or removed) there is nothing
+ * new to evaluate. Head rotation and sub block movement are skipped here
+ * before any containers are built, unless the player is standing in a portal
+ * that hasn't activated for them yet.
+ *
+ * <p>Each player also carries a distance budget: the distance from where it
+ * was measured to the nearest portal box. Until the player has moved at
+ * least that far from that point they cannot have reached a portal, so
+ * players nowhere near a portal skip the checks entirely.
+ */
+@Singleton
+public class PlayerMoveGate {
+    @Inject
+    private PortalServices portalServices;
+
+    @Inject
+    private PlayerDataServices playerDataServices;
+
+    @Inject
+    private Metrics metrics;
+
+    private final Map<UUID, MoveState> moveStates = new ConcurrentHashMap<>();
+
+    /**
+     * @param topBlockY the y of the block at the top of the player, the same
+     *     block checkPortalActivation tests for the player's head.
+     * @return if the move should go through the portal activation checks.
+     */
+    public boolean shouldCheck(UUID uuid, String worldName, int blockX,
+                               int blockY, int blockZ, int topBlockY) {
+        long portalVersion = portalServices.getPortalVersion();
+        MoveState state = moveStates.get(uuid);
+        if (state == null) {
+            state = new MoveState();
+            moveStates.put(uuid, state);
+        }
+
+        boolean sameContext = state.valid
+            && state.portalVersion == portalVersion
+            && state.topOffset == topBlockY - blockY
+            && Objects.equals(state.worldName, worldName);
+
+        if (sameContext && state.blockX == blockX && state.blockY == blockY
+            && state.blockZ == blockZ) {
+            // Standing in a portal that silently denied them, e.g. a
+            // condition or cooldown, it may let them through now
+            if (state.mayBeInPortal && !isMarkedInPortal(uuid)) {
+                metrics.getMoveChecksPassed().increment();
+                return true;
+            }
+            metrics.getMoveChecksSkipped().increment();
+            return false;
+        }
+
+        state.blockX = blockX;
+        state.blockY = blockY;
+        state.blockZ = blockZ;
+
+        if (sameContext) {
+            long dx = blockX - state.anchorX;
+            long dy = blockY - state.anchorY;
+            long dz = blockZ - state.anchorZ;
+            if (dx * dx + dy * dy + dz * dz < state.budgetSq) {
+                metrics.getMoveChecksSkipped().increment();
+                return false;
+            }
+        }
+
+        double distance = portalServices.getDistanceToNearestPortal(
+            worldName, blockX, blockY, topBlockY, blockZ);
+        state.worldName = worldName;
+        state.topOffset = topBlockY - blockY;
+        state.portalVersion = portalVersion;
+        state.anchorX = blockX;
+        state.anchorY = blockY;
+        state.anchorZ = blockZ;
+        state.budgetSq = distance * distance;
+        state.valid = true;
+
+        // Still let one check through after leaving a portal so the player's
+        // in portal state gets cleared.
+        if (sameContext && distance > 0 && !state.mayBeInPortal) {
+            metrics.getMoveChecksSkipped().increment();
+            return false;
+        }
+        state.mayBeInPortal = distance == 0;
+        metrics.getMoveChecksPassed().increment();
+        return true;
+    }
+
+    /**
+     * Forces the next move from this player to be checked, e.g. after a
+     * teleport or their in portal state being changed from elsewhere.
+     */
+    public void invalidate(UUID uuid) {
+        MoveState state = moveStates.get(uuid);
+        if (state != null) {
+            state.valid = false;
+        }
+    }
+
+    public void playerLeave(UUID uuid) {
+        moveStates.remove(uuid);
+    }
+
+    private boolean isMarkedInPortal(UUID uuid) {
+        PlayerData playerData = playerDataServices.getLoadedPlayerData(uuid);
+        return playerData != null && playerData.inPortal() != null;
+    }
+
+    /**
+     * Only ever touched from the thread handling the player's movement.
+     */
+    private static class MoveState {
+        private volatile boolean valid;
+
+        private String worldName;
+
+        private int blockX;
+
+        private int blockY;
+
+        private int blockZ;
+
+        private int topOffset;
+
+        private long portalVersion;
+
+        private int anchorX;
+
+        private int anchorY;
+
+        private int anchorZ;
+
+        /**
+         * Squared distance the player can move away from the anchor before
+         * they could possibly touch a portal.
+         */
+        private double budgetSq;
+
+        private boolean mayBeInPortal;
+    }
+}
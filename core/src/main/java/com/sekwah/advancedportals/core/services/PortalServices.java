@@ -2,23 +2,31 @@ package com.sekwah.advancedportals.core.services;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.sekwah.advancedportals.core.AdvancedPortalsCore;
 import com.sekwah.advancedportals.core.connector.containers.GameMode;
 import com.sekwah.advancedportals.core.connector.containers.PlayerContainer;
 import com.sekwah.advancedportals.core.connector.containers.WorldContainer;
+import com.sekwah.advancedportals.core.metrics.Metrics;
 import com.sekwah.advancedportals.core.portal.AdvancedPortal;
+import com.sekwah.advancedportals.core.portal.PortalSnapshot;
+import com.sekwah.advancedportals.core.portal.PortalSpatialIndex;
 import com.sekwah.advancedportals.core.registry.TagRegistry;
 import com.sekwah.advancedportals.core.repository.ConfigRepository;
 import com.sekwah.advancedportals.core.repository.IPortalRepository;
+import com.sekwah.advancedportals.core.serializeddata.BinarySnapshotStore;
 import com.sekwah.advancedportals.core.serializeddata.BlockLocation;
 import com.sekwah.advancedportals.core.serializeddata.DataTag;
 import com.sekwah.advancedportals.core.serializeddata.PlayerData;
 import com.sekwah.advancedportals.core.serializeddata.PlayerLocation;
 import com.sekwah.advancedportals.core.tags.NameTag;
+import com.sekwah.advancedportals.core.util.InfoLogger;
 import com.sekwah.advancedportals.core.util.Lang;
+import com.sekwah.advancedportals.core.util.ParallelLoader;
 import com.sekwah.advancedportals.core.util.PlayerUtils;
 import com.sekwah.advancedportals.core.warphandler.Tag;
 import com.sekwah.advancedportals.core.warphandler.TriggerType;
 import java.util.*;
+import java.util.function.UnaryOperator;
 import javax.annotation.Nullable;
 
 @Singleton
@@ -32,42 +40,218 @@ public class PortalServices {
     @Inject
     private ConfigRepository configRepository;
 
-    private final Map<String, AdvancedPortal> portalCache = new HashMap<>();
+    @Inject
+    private InfoLogger infoLogger;
+
+    @Inject
+    private BinarySnapshotStore binarySnapshotStore;
+
+    @Inject
+    private Metrics metrics;
+
+    private static final String SNAPSHOT_FILE = "cache/portals.bin";
+
+    private static final int NEAREST_PORTAL_SEARCH_DISTANCE = 128;
+
+    /**
+     * Replaced as a whole whenever portals change so move checks on any
+     * thread can read it without locking.
+     */
+    private volatile PortalSnapshot portalSnapshot = PortalSnapshot.EMPTY;
+
+    /**
+     * The loaded portals along with the size and last modified time of their
+     * files, used to tell which files need parsing again on reload.
+     */
+    private volatile Map<String, BinarySnapshotStore.Entry<AdvancedPortal>>
+        loadedEntries = Collections.emptyMap();
+
+    /**
+     * Held while portal files are listed, read, written or deleted so a
+     * reload never publishes a listing that misses a create or remove.
+     */
+    private final Object fileLock = new Object();
 
     @Inject
     TagRegistry tagRegistry;
 
+    /**
+     * Loads every portal file, only parsing the ones that changed since they
+     * were last loaded. Safe to call off the main thread, the new set of
+     * portals is swapped in all at once.
+     */
     public void loadPortals() {
+        synchronized (this.fileLock) {
+            reloadPortals();
+        }
+    }
+
+    private void reloadPortals() {
+        long startTime = System.nanoTime();
         List<String> portalNames = portalRepository.getAllNames();
-        portalCache.clear();
+        Map<String, BinarySnapshotStore.Entry<AdvancedPortal>> known =
+            this.loadedEntries;
+        boolean fromDisk = known.isEmpty();
+        if (fromDisk) {
+            known =
+                binarySnapshotStore.read(SNAPSHOT_FILE, AdvancedPortal::read);
+        }
+
+        Map<String, BinarySnapshotStore.Entry<AdvancedPortal>> entries =
+            new HashMap<>();
+        List<String> changedNames = new ArrayList<>();
         for (String name : portalNames) {
-            AdvancedPortal portal = portalRepository.get(name);
-            if (portal == null) {
-                continue;
+            BinarySnapshotStore.Entry<AdvancedPortal> entry = known.get(name);
+            if (entry != null
+                && entry.matches(portalRepository.getLastModified(name),
+                                 portalRepository.getFileSize(name))) {
+                if (fromDisk) {
+                    AdvancedPortalsCore.getInstance()
+                        .getModule()
+                        .getInjector()
+                        .injectMembers(entry.getValue());
+                    entry.getValue().updatePortalTagList();
+                } else {
+                    // Blocks may have changed without any event we listen to
+                    entry.getValue().blocksChanged();
+                }
+                entries.put(name, entry);
+            } else {
+                changedNames.add(name);
             }
-            portalCache.put(name, portal);
-            portal.updateBounds(portal.getMinLoc(), portal.getMaxLoc());
         }
-    }
+        int unchanged = entries.size();
 
-    public boolean inPortalRegionProtected(BlockLocation loc) {
-        for (AdvancedPortal portal : portalCache.values()) {
-            if (portal.isLocationInPortal(
-                    loc, configRepository.getProtectionRadius())) {
-                return true;
+        entries.putAll(
+            ParallelLoader.loadAll(changedNames, this::loadEntry, infoLogger));
+        long parsedTime = System.nanoTime();
+
+        long bytesRead = 0;
+        Map<String, AdvancedPortal> portals = new HashMap<>();
+        for (Map.Entry<String, BinarySnapshotStore.Entry<AdvancedPortal>>
+                 entry : entries.entrySet()) {
+            portals.put(entry.getKey(), entry.getValue().getValue());
+        }
+        for (String name : changedNames) {
+            BinarySnapshotStore.Entry<AdvancedPortal> entry = entries.get(name);
+            if (entry != null) {
+                bytesRead += entry.getSize();
             }
         }
-        return false;
-    }
 
-    public boolean inPortalRegionProtected(PlayerLocation loc) {
-        for (AdvancedPortal portal : portalCache.values()) {
-            if (portal.isLocationInPortal(
-                    loc, configRepository.getProtectionRadius())) {
-                return true;
+        boolean changed =
+            !changedNames.isEmpty() || known.size() != entries.size();
+        if (fromDisk || changed) {
+            int radius = Math.max(0, configRepository.getProtectionRadius());
+            synchronized (this) {
+                this.loadedEntries = Collections.unmodifiableMap(entries);
+                updateSnapshot(snapshot
+                               -> PortalSnapshot.of(snapshot.getVersion() + 1,
+                                                    portals, radius));
             }
         }
-        return false;
+        long indexedTime = System.nanoTime();
+
+        infoLogger.info(ParallelLoader.formatReport(
+            "logger.loadtype.portals", portals.size(), unchanged,
+            changedNames.size(), bytesRead,
+            ParallelLoader.getThreadCount(changedNames.size()),
+            parsedTime - startTime, indexedTime - parsedTime));
+
+        if (changed) {
+            saveBinarySnapshot();
+        }
+    }
+
+    private BinarySnapshotStore.Entry<AdvancedPortal> loadEntry(String name) {
+        // Stat before reading so an edit made while parsing is picked up by
+        // the next reload rather than missed.
+        long lastModified = portalRepository.getLastModified(name);
+        long size = portalRepository.getFileSize(name);
+        AdvancedPortal portal = portalRepository.get(name);
+        if (portal == null) {
+            return null;
+        }
+        portal.updateBounds(portal.getMinLoc(), portal.getMaxLoc());
+        // Parse tag args now rather than on the first activation
+        portal.updatePortalTagList();
+        return new BinarySnapshotStore.Entry<>(lastModified, size, portal);
+    }
+
+    private synchronized void putLoadedEntry(String name,
+                                             AdvancedPortal portal) {
+        Map<String, BinarySnapshotStore.Entry<AdvancedPortal>> entries =
+            new HashMap<>(this.loadedEntries);
+        entries.put(name, new BinarySnapshotStore.Entry<>(
+                              portalRepository.getLastModified(name),
+                              portalRepository.getFileSize(name), portal));
+        this.loadedEntries = Collections.unmodifiableMap(entries);
+    }
+
+    private synchronized void removeLoadedEntry(String name) {
+        if (!this.loadedEntries.containsKey(name)) {
+            return;
+        }
+        Map<String, BinarySnapshotStore.Entry<AdvancedPortal>> entries =
+            new HashMap<>(this.loadedEntries);
+        entries.remove(name);
+        this.loadedEntries = Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * Queues the binary snapshot of all portals to be rewritten in the
+     * background.
+     */
+    public void saveBinarySnapshot() {
+        binarySnapshotStore.writeLater(SNAPSHOT_FILE, () -> this.loadedEntries,
+                                       AdvancedPortal::write);
+    }
+
+    private synchronized void updateSnapshot(
+        UnaryOperator<PortalSnapshot> update) {
+        this.portalSnapshot = update.apply(this.portalSnapshot);
+    }
+
+    /**
+     * @return the current set of portals, safe to hold onto and read from any
+     *     thread.
+     */
+    public PortalSnapshot getSnapshot() {
+        return portalSnapshot;
+    }
+
+    /**
+     * Bumped whenever portals are added or removed.
+     */
+    public long getPortalVersion() {
+        return portalSnapshot.getVersion();
+    }
+
+    private PortalSpatialIndex getProtectionIndex() {
+        int radius = Math.max(0, configRepository.getProtectionRadius());
+        PortalSpatialIndex index = portalSnapshot.getProtectionIndex();
+        if (index.getExpansion() != radius) {
+            updateSnapshot(snapshot
+                           -> snapshot.getProtectionIndex().getExpansion()
+                                   == radius
+                               ? snapshot
+                               : snapshot.withProtectionRadius(radius));
+            index = portalSnapshot.getProtectionIndex();
+        }
+        return index;
+    }
+
+    public boolean inPortalRegionProtected(BlockLocation loc) {
+        long start = System.nanoTime();
+        PortalSpatialIndex index = getProtectionIndex();
+        boolean protectedRegion =
+            index.getPortalAt(loc, index.getExpansion()) != null;
+        metrics.getProtectionCheck().recordSince(start);
+        return protectedRegion;
+    }
+
+    public boolean inPortalRegionProtected(PlayerLocation loc) {
+        return inPortalRegionProtected(loc.toBlockPos());
     }
 
     public boolean inPortalRegion(BlockLocation loc, int extraBlocks) {
@@ -83,16 +267,49 @@ public class PortalServices {
     }
 
     public String inPortalRegionGetName(BlockLocation loc, int extraBlocks) {
-        for (AdvancedPortal portal : portalCache.values()) {
-            if (portal.isLocationInPortal(loc, extraBlocks)) {
-                return portal.getName();
+        AdvancedPortal portal =
+            portalSnapshot.getPortalIndex().getPortalAt(loc, extraBlocks);
+        return portal == null ? null : portal.getName();
+    }
+
+    /**
+     * @return the portals within range blocks of the location.
+     */
+    public List<AdvancedPortal> getPortalsNear(BlockLocation loc, int range) {
+        return portalSnapshot.getPortalIndex().getPortalsNear(loc, range);
+    }
+
+    /**
+     * Distance in blocks from a column of blocks (e.g. a player's feet up to
+     * their head) to the closest portal box in the world. Searches no
+     * further than {@link #NEAREST_PORTAL_SEARCH_DISTANCE}, past that a
+     * lower bound is returned instead.
+     *
+     * @return 0 if any of the blocks are inside a portal or
+     *     {@link Double#POSITIVE_INFINITY} if the world has no portals.
+     */
+    public double getDistanceToNearestPortal(String worldName, int posX,
+                                             int minY, int maxY, int posZ) {
+        return portalSnapshot.getPortalIndex().getDistanceToNearest(
+            worldName, posX, minY, maxY, posZ, NEAREST_PORTAL_SEARCH_DISTANCE);
+    }
+
+    /**
+     * Lets any portals covering the location know the block there may have
+     * changed.
+     */
+    public void blockChanged(BlockLocation loc) {
+        for (AdvancedPortal portal :
+             portalSnapshot.getPortalIndex().getPortalsInColumn(
+                 loc.getWorldName(), loc.getPosX(), loc.getPosZ())) {
+            if (portal.isLocationInPortal(loc)) {
+                portal.blockChanged(loc);
             }
         }
-        return null;
     }
 
     public AdvancedPortal getPortal(String portalName) {
-        return portalCache.get(portalName);
+        return portalSnapshot.getPortal(portalName);
     }
 
     public enum PortalActivationResult {
@@ -103,6 +320,16 @@ public class PortalServices {
     }
 
     public PortalActivationResult checkPortalActivation(
+        PlayerContainer player, PlayerLocation toLoc, TriggerType triggerType) {
+        long start = System.nanoTime();
+        try {
+            return findAndActivatePortal(player, toLoc, triggerType);
+        } finally {
+            metrics.getPortalCheck().recordSince(start);
+        }
+    }
+
+    private PortalActivationResult findAndActivatePortal(
         PlayerContainer player, PlayerLocation toLoc, TriggerType triggerType) {
         if (configRepository.blockSpectatorMode()
             && player.getGameMode() == GameMode.SPECTATOR) {
@@ -111,16 +338,26 @@ public class PortalServices {
 
         BlockLocation blockLoc = toLoc.toBlockPos();
         BlockLocation blockEntityTopLoc = blockLoc.addY(player.getHeight());
-        WorldContainer world = player.getWorld();
-        String blockMaterial = world.getBlock(blockLoc);
-        String blockEntityTopMaterial = world.getBlock(blockEntityTopLoc);
         PlayerData playerData = playerDataServices.getPlayerData(player);
 
-        for (AdvancedPortal portal : portalCache.values()) {
-            if ((portal.isLocationInPortal(toLoc)
-                 && portal.isTriggerBlock(blockMaterial))
-                || (portal.isLocationInPortal(blockEntityTopLoc)
-                    && portal.isTriggerBlock(blockEntityTopMaterial))) {
+        // Feet and head share a chunk column so one bucket covers both.
+        List<AdvancedPortal> nearbyPortals =
+            portalSnapshot.getPortalIndex().getPortalsInColumn(
+                blockLoc.getWorldName(), blockLoc.getPosX(),
+                blockLoc.getPosZ());
+        WorldContainer world = null;
+
+        for (AdvancedPortal portal : nearbyPortals) {
+            boolean triggered = false;
+            if (portal.isLocationInPortal(blockLoc)) {
+                world = world == null ? player.getWorld() : world;
+                triggered = portal.isTriggerBlockAt(world, blockLoc);
+            }
+            if (!triggered && portal.isLocationInPortal(blockEntityTopLoc)) {
+                world = world == null ? player.getWorld() : world;
+                triggered = portal.isTriggerBlockAt(world, blockEntityTopLoc);
+            }
+            if (triggered) {
                 String portalName = portal.getName();
                 if (Objects.equals(playerData.inPortal(), portalName)) {
                     return PortalActivationResult.PORTAL_DENIED;
@@ -149,16 +386,20 @@ public class PortalServices {
     }
 
     public List<AdvancedPortal> getPortals() {
-        return new ArrayList<>(portalCache.values());
+        return new ArrayList<>(portalSnapshot.getPortals().values());
     }
 
     public boolean removePortal(String name, PlayerContainer player) {
-        this.portalCache.remove(name);
-        if (this.portalRepository.containsKey(name)) {
-            this.portalRepository.delete(name);
-            return true;
+        synchronized (this.fileLock) {
+            this.updateSnapshot(snapshot -> snapshot.withoutPortal(name));
+            this.removeLoadedEntry(name);
+            if (this.portalRepository.containsKey(name)) {
+                this.portalRepository.delete(name);
+                this.saveBinarySnapshot();
+                return true;
+            }
+            return false;
         }
-        return false;
     }
 
     public AdvancedPortal createPortal(PlayerContainer player,
@@ -207,7 +448,16 @@ public class PortalServices {
                 player.sendMessage(Lang.getNegativePrefix()
                                    + Lang.translate("command.error.noname"));
             return null;
-        } else if (this.portalRepository.containsKey(name)) {
+        }
+        synchronized (this.fileLock) {
+            return createPortal(player, pos1, pos2, tags, name);
+        }
+    }
+
+    private AdvancedPortal createPortal(@Nullable PlayerContainer player,
+                                        BlockLocation pos1, BlockLocation pos2,
+                                        List<DataTag> tags, String name) {
+        if (this.portalRepository.containsKey(name)) {
             if (player != null)
                 player.sendMessage(Lang.getNegativePrefix()
                                    + Lang.translateInsertVariables(
@@ -231,10 +481,14 @@ public class PortalServices {
                 }
             }
         }
+        portal.updatePortalTagList();
 
         try {
             if (this.portalRepository.save(name, portal)) {
-                this.portalCache.put(name, portal);
+                this.updateSnapshot(
+                    snapshot -> snapshot.withPortal(name, portal));
+                this.putLoadedEntry(name, portal);
+                this.saveBinarySnapshot();
             } else {
                 return null;
             }
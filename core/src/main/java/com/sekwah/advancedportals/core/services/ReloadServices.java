@@ -0,0 +1,236 @@
+package com.sekwah.advancedportals.core.services;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.sekwah.advancedportals.core.AdvancedPortalsCore;
+import com.sekwah.advancedportals.core.metrics.MetricsExporter;
+import com.sekwah.advancedportals.core.repository.ConfigRepository;
+import com.sekwah.advancedportals.core.serializeddata.DataStorage;
+import com.sekwah.advancedportals.core.util.GameScheduler;
+import com.sekwah.advancedportals.core.util.InfoLogger;
+import com.sekwah.advancedportals.core.util.Lang;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Runs reloads away from the thread that asked for them and optionally
+ * watches the data folders so edited files are picked up automatically.
+ *
+ * <p>Only files that changed are parsed again and each set of portals or
+ * destinations is swapped in as a whole, so nothing ever sees a half loaded
+ * state.
+ */
+@Singleton
+public class ReloadServices {
+    /**
+     * How long the folders need to be quiet before an automatic reload, so a
+     * burst of saves only triggers one.
+     */
+    private static final long WATCH_SETTLE_MILLIS = 500;
+
+    private static final String[] WATCHED_FOLDERS = {"portals", "desti"};
+
+    @Inject
+    private AdvancedPortalsCore portalsCore;
+
+    @Inject
+    private PortalServices portalServices;
+
+    @Inject
+    private DestinationServices destinationServices;
+
+    @Inject
+    private PlaceholderCache placeholderCache;
+
+    @Inject
+    private MetricsExporter metricsExporter;
+
+    @Inject
+    private ConfigRepository configRepository;
+
+    @Inject
+    private DataStorage dataStorage;
+
+    @Inject
+    private InfoLogger infoLogger;
+
+    @Inject
+    private GameScheduler gameScheduler;
+
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    private final AtomicBoolean dataReloadQueued = new AtomicBoolean();
+
+    private final ExecutorService reloadExecutor =
+        Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AdvancedPortals-Reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    private WatchService watchService;
+
+    private Thread watchThread;
+
+    /**
+     * Reloads the config, language, portals and destinations in the
+     * background.
+     *
+     * @param onComplete called on the next game tick after the reload with
+     *     whether it succeeded
+     * @return false if a reload is already running
+     */
+    public boolean reloadAll(Consumer<Boolean> onComplete) {
+        if (!reloading.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            reloadExecutor.execute(() -> {
+                boolean success = false;
+                try {
+                    portalsCore.loadPortalConfig();
+                    Lang.loadLanguage(configRepository.getTranslation());
+                    placeholderCache.clear();
+                    portalServices.loadPortals();
+                    destinationServices.loadDestinations();
+                    updateWatcher();
+                    metricsExporter.updateSchedule();
+                    success = true;
+                } catch (RuntimeException e) {
+                    infoLogger.error(e);
+                } finally {
+                    reloading.set(false);
+                }
+                boolean succeeded = success;
+                gameScheduler.delayedTickEvent(
+                    "reload_complete", () -> onComplete.accept(succeeded), 0);
+            });
+        } catch (RejectedExecutionException e) {
+            reloading.set(false);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Queues a reload of just the portal and destination files.
+     */
+    public void reloadData() {
+        if (!dataReloadQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            reloadExecutor.execute(() -> {
+                dataReloadQueued.set(false);
+                try {
+                    portalServices.loadPortals();
+                    destinationServices.loadDestinations();
+                } catch (RuntimeException e) {
+                    infoLogger.error(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            dataReloadQueued.set(false);
+        }
+    }
+
+    /**
+     * Starts or stops watching the data folders to match the config.
+     */
+    public synchronized void updateWatcher() {
+        if (configRepository.getAutoReload()) {
+            if (watchService == null) {
+                startWatching();
+            }
+        } else {
+            stopWatching();
+        }
+    }
+
+    private void startWatching() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            for (String folder : WATCHED_FOLDERS) {
+                File directory = new File(dataStorage.getDataFolder(), folder);
+                if (!directory.exists() && !directory.mkdirs()) {
+                    infoLogger.warning("Could not create folder to watch: "
+                                       + folder);
+                    continue;
+                }
+                directory.toPath().register(
+                    watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        } catch (IOException e) {
+            infoLogger.warning("Could not watch the data folders, automatic "
+                               + "reloading is disabled: " + e.getMessage());
+            stopWatching();
+            return;
+        }
+        WatchService service = watchService;
+        watchThread = new Thread(() -> watch(service),
+                                 "AdvancedPortals-FileWatcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    private void watch(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                key.pollEvents();
+                key.reset();
+                // Wait for things to settle so a burst of edits is one reload
+                while ((key = service.poll(WATCH_SETTLE_MILLIS,
+                                           TimeUnit.MILLISECONDS))
+                       != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+                reloadData();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    public synchronized void stopWatching() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                infoLogger.error(e);
+            }
+            watchService = null;
+        }
+        if (watchThread != null) {
+            watchThread.interrupt();
+            watchThread = null;
+        }
+    }
+
+    /**
+     * Stops watching and waits briefly for any running reload to finish.
+     */
+    public void shutdown() {
+        stopWatching();
+        reloadExecutor.shutdown();
+        try {
+            reloadExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,22 +2,24 @@ package com.sekwah.advancedportals.core.tags;
 
 import com.google.common.io.ByteArrayDataOutput;
 import com.google.common.io.ByteStreams;
+import com.google.inject.Inject;
 import com.sekwah.advancedportals.core.connector.containers.PlayerContainer;
+import com.sekwah.advancedportals.core.metrics.Metrics;
 import com.sekwah.advancedportals.core.registry.TagTarget;
 import com.sekwah.advancedportals.core.util.Lang;
 import com.sekwah.advancedportals.core.warphandler.ActivationData;
 import com.sekwah.advancedportals.core.warphandler.Tag;
-import java.util.Random;
 
-public class BungeeTag implements Tag.Activation {
+public class BungeeTag implements Tag.TypedActivation<ChoiceArgs> {
     public static final String PACKET_CHANNEL = "BungeeCord";
 
+    @Inject
+    private Metrics metrics;
+
     public static String TAG_NAME = "bungee";
 
     private final TagType[] tagTypes = new TagType[] {TagType.PORTAL};
 
-    private final Random random = new Random();
-
     @Override
     public TagType[] getTagTypes() {
         return tagTypes;
@@ -39,25 +41,34 @@ public class BungeeTag implements Tag.Activation {
     }
 
     @Override
-    public boolean preActivated(TagTarget target, PlayerContainer player,
-                                ActivationData activeData, String[] argData) {
+    public ChoiceArgs parseArgs(String[] argData) {
+        return ChoiceArgs.of(argData);
+    }
+
+    @Override
+    public boolean preActivatedParsed(TagTarget target, PlayerContainer player,
+                                      ActivationData activeData,
+                                      ChoiceArgs args) {
         return true;
     }
 
     @Override
-    public void postActivated(TagTarget target, PlayerContainer player,
-                              ActivationData activationData, String[] argData) {
+    public void postActivatedParsed(TagTarget target, PlayerContainer player,
+                                    ActivationData activationData,
+                                    ChoiceArgs args) {
     }
 
     @Override
-    public boolean activated(TagTarget target, PlayerContainer player,
-                             ActivationData activeData, String[] argData) {
-        String selectedArg = argData[random.nextInt(argData.length)];
+    public boolean activatedParsed(TagTarget target, PlayerContainer player,
+                                   ActivationData activeData,
+                                   ChoiceArgs args) {
+        String selectedArg = args.pick();
 
         ByteArrayDataOutput outForSend = ByteStreams.newDataOutput();
         outForSend.writeUTF("Connect");
         outForSend.writeUTF(selectedArg);
         player.sendPacket(BungeeTag.PACKET_CHANNEL, outForSend.toByteArray());
+        metrics.getProxyMessagesSent().increment();
         activeData.setWarpStatus(ActivationData.WarpedStatus.WARPED);
         return true;
     }
@@ -0,0 +1,40 @@
+package com.sekwah.advancedportals.core.tags;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Parsed args for tags that pick one of their values at random each time the
+ * portal is used.
+ */
+public final class ChoiceArgs {
+    private final String[] values;
+
+    private ChoiceArgs(String[] values) {
+        this.values = values;
+    }
+
+    /**
+     * @return the parsed args or null if there is nothing to choose from.
+     */
+    public static ChoiceArgs of(String[] argData) {
+        if (argData == null || argData.length == 0) {
+            return null;
+        }
+        return new ChoiceArgs(argData.clone());
+    }
+
+    public String pick() {
+        if (this.values.length == 1) {
+            return this.values[0];
+        }
+        return this.values[ThreadLocalRandom.current().nextInt(
+            this.values.length)];
+    }
+
+    /**
+     * @return the raw values, must not be modified.
+     */
+    public String[] getValues() {
+        return this.values;
+    }
+}
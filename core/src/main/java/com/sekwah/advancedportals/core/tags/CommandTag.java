@@ -3,6 +3,7 @@ package com.sekwah.advancedportals.core.tags;
 import com.google.inject.Inject;
 import com.sekwah.advancedportals.core.ProxyMessages;
 import com.sekwah.advancedportals.core.connector.containers.PlayerContainer;
+import com.sekwah.advancedportals.core.metrics.Metrics;
 import com.sekwah.advancedportals.core.network.ProxyCommandPacket;
 import com.sekwah.advancedportals.core.permissions.Permissions;
 import com.sekwah.advancedportals.core.registry.TagTarget;
@@ -17,6 +18,9 @@ public class CommandTag implements Tag.Activation, Tag.Split, Tag.Creation {
     @Inject
     ConfigRepository configRepository;
 
+    @Inject
+    private Metrics metrics;
+
     public static String TAG_NAME = "command";
 
     private final TagType[] tagTypes = new TagType[] {TagType.PORTAL};
@@ -134,6 +138,7 @@ public class CommandTag implements Tag.Activation, Tag.Split, Tag.Creation {
                         new ProxyCommandPacket(formattedCommand.substring(1));
                     player.sendPacket(ProxyMessages.CHANNEL_NAME,
                                       packet.encode());
+                    metrics.getProxyMessagesSent().increment();
                     break;
                 default:
                     player.getServer().dispatchCommand(player.getUUID(),
@@ -0,0 +1,244 @@
+package com.sekwah.advancedportals.core.tags;
+
+import java.util.function.Function;
+
+/**
+ * Conditions compiled from tag args such as {@code %player_level%>=10}. All
+ * of them have to pass for the portal to activate.
+ */
+public final class ConditionArgs {
+    private final Condition[] conditions;
+
+    private ConditionArgs(Condition[] conditions) {
+        this.conditions = conditions;
+    }
+
+    /**
+     * @return the compiled conditions or null if there are none or any of
+     *     them are invalid.
+     */
+    public static ConditionArgs of(String[] argData) {
+        if (argData == null || argData.length == 0) {
+            return null;
+        }
+        Condition[] conditions = new Condition[argData.length];
+        for (int i = 0; i < argData.length; i++) {
+            conditions[i] = Condition.parse(argData[i]);
+            if (conditions[i] == null) {
+                return null;
+            }
+        }
+        return new ConditionArgs(conditions);
+    }
+
+    /**
+     * @param placeholders resolves a placeholder to its current value
+     */
+    public boolean test(Function<String, String> placeholders) {
+        for (Condition condition : this.conditions) {
+            if (!condition.test(placeholders.apply(condition.placeholder))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public enum Operator {
+        LESS_OR_EQUAL("<="),
+        GREATER_OR_EQUAL(">="),
+        EQUAL("=="),
+        LESS("<"),
+        GREATER(">");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        /**
+         * @return the operator starting at index or null if there isn't one.
+         */
+        private static Operator at(String text, int index) {
+            for (Operator operator : values()) {
+                if (text.startsWith(operator.symbol, index)) {
+                    return operator;
+                }
+            }
+            return null;
+        }
+
+        private boolean compare(double actual, double expected) {
+            switch (this) {
+                case LESS_OR_EQUAL:
+                    return actual <= expected;
+                case GREATER_OR_EQUAL:
+                    return actual >= expected;
+                case EQUAL:
+                    return actual == expected;
+                case LESS:
+                    return actual < expected;
+                case GREATER:
+                    return actual > expected;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    public static final class Condition {
+        private final String placeholder;
+
+        private final Operator operator;
+
+        private final String expected;
+
+        private final double expectedNumber;
+
+        private final boolean numeric;
+
+        private final boolean isBoolean;
+
+        private Condition(String placeholder, Operator operator,
+                          String expected) {
+            this.placeholder = placeholder;
+            this.operator = operator;
+            this.expected = expected;
+            this.numeric = isNumeric(expected);
+            this.expectedNumber =
+                this.numeric ? Double.parseDouble(expected) : 0;
+            this.isBoolean = isBoolean(expected);
+        }
+
+        /**
+         * Whitespace is ignored and there must be exactly one operator with
+         * something on either side of it.
+         *
+         * @return the condition or null if it is invalid.
+         */
+        public static Condition parse(String condition) {
+            if (condition == null) {
+                return null;
+            }
+            StringBuilder stripped = new StringBuilder(condition.length());
+            for (int i = 0; i < condition.length(); i++) {
+                char character = condition.charAt(i);
+                if (!Character.isWhitespace(character)) {
+                    stripped.append(character);
+                }
+            }
+            String text = stripped.toString();
+
+            int operatorIndex = -1;
+            Operator operator = null;
+            for (int i = 0; i < text.length(); i++) {
+                Operator found = Operator.at(text, i);
+                if (found == null) {
+                    continue;
+                }
+                if (operator != null) {
+                    return null;
+                }
+                operator = found;
+                operatorIndex = i;
+                i += found.symbol.length() - 1;
+            }
+            if (operator == null) {
+                return null;
+            }
+
+            String placeholder = text.substring(0, operatorIndex);
+            String expected =
+                text.substring(operatorIndex + operator.symbol.length());
+            if (placeholder.isEmpty() || expected.isEmpty()) {
+                return null;
+            }
+            return new Condition(placeholder, operator, expected);
+        }
+
+        /**
+         * Numbers are compared with the operator, booleans and anything else
+         * only check for equality.
+         */
+        public boolean test(String actual) {
+            if (actual == null) {
+                return false;
+            }
+            if (this.numeric) {
+                String trimmed = actual.trim();
+                if (isNumeric(trimmed)) {
+                    return this.operator.compare(Double.parseDouble(trimmed),
+                                                 this.expectedNumber);
+                }
+            }
+            if (this.isBoolean && isBoolean(actual)) {
+                return Boolean.parseBoolean(actual)
+                    == Boolean.parseBoolean(this.expected);
+            }
+            return this.expected.equals(actual);
+        }
+
+        public String getPlaceholder() {
+            return this.placeholder;
+        }
+
+        public Operator getOperator() {
+            return this.operator;
+        }
+
+        public String getExpected() {
+            return this.expected;
+        }
+    }
+
+    /**
+     * Checks for plain decimal numbers such as {@code -1}, {@code 2.5} or
+     * {@code 1e3} without relying on catching parse exceptions.
+     */
+    private static boolean isNumeric(String text) {
+        int length = text.length();
+        int i = 0;
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            i++;
+        }
+        int digits = 0;
+        while (i < length && isDigit(text.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (i < length && text.charAt(i) == '.') {
+            i++;
+            while (i < length && isDigit(text.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            if (i < length
+                && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            while (i < length && isDigit(text.charAt(i))) {
+                i++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    private static boolean isDigit(char character) {
+        return character >= '0' && character <= '9';
+    }
+
+    private static boolean isBoolean(String text) {
+        return text.equalsIgnoreCase("true") || text.equalsIgnoreCase("false");
+    }
+}
@@ -11,10 +11,12 @@ import com.sekwah.advancedportals.core.util.InfoLogger;
 import com.sekwah.advancedportals.core.util.Lang;
 import com.sekwah.advancedportals.core.warphandler.ActivationData;
 import com.sekwah.advancedportals.core.warphandler.Tag;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
 import javax.annotation.Nullable;
 
-public class CooldownTag implements Tag.Activation, Tag.Creation {
+public class CooldownTag
+    implements Tag.TypedActivation<Integer>, Tag.Creation {
     @Inject
     PlayerDataServices playerDataServices;
 
@@ -49,10 +51,39 @@ public class CooldownTag implements Tag.Activation, Tag.Creation {
         return Lang.translate("tag.cooldown.description");
     }
 
+    /**
+     * @return the cooldown in milliseconds
+     */
     @Override
-    public boolean preActivated(TagTarget target, PlayerContainer player,
-                                ActivationData activationData,
-                                String[] argData) {
+    public Integer parseArgs(String[] argData) {
+        if (argData.length == 0) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(argData[0]) * 1000;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean preActivatedParsed(TagTarget target, PlayerContainer player,
+                                      ActivationData activationData,
+                                      Integer cooldown) {
+        return checkCooldown(target, player);
+    }
+
+    @Override
+    public boolean preActivatedInvalid(TagTarget target, PlayerContainer player,
+                                       ActivationData activationData,
+                                       String[] argData) {
+        // Still enforce any cooldown left over from before the value broke
+        infoLogger.warning("Cooldown tag has an invalid value: "
+                           + Arrays.toString(argData));
+        return checkCooldown(target, player);
+    }
+
+    private boolean checkCooldown(TagTarget target, PlayerContainer player) {
         PlayerData playerData = playerDataServices.getPlayerData(player);
         if (target instanceof AdvancedPortal) {
             AdvancedPortal portal = (AdvancedPortal) target;
@@ -65,8 +96,9 @@ public class CooldownTag implements Tag.Activation, Tag.Creation {
                     Lang.translate(cooldown == 1 ? "time.second"
                                                  : "time.seconds")));
                 if (configRepository.playFailSound()) {
-                    player.playSound("block.portal.travel", 0.05f,
-                                     new Random().nextFloat() * 0.4F + 0.8F);
+                    player.playSound(
+                        "block.portal.travel", 0.05f,
+                        ThreadLocalRandom.current().nextFloat() * 0.4F + 0.8F);
                 }
                 return false;
             }
@@ -76,28 +108,21 @@ public class CooldownTag implements Tag.Activation, Tag.Creation {
     }
 
     @Override
-    public void postActivated(TagTarget target, PlayerContainer player,
-                              ActivationData activationData, String[] argData) {
-        if (activationData.hasActivated()) {
-            if (target instanceof AdvancedPortal) {
-                AdvancedPortal portal = (AdvancedPortal) target;
-                PlayerData playerData =
-                    playerDataServices.getPlayerData(player);
-                try {
-                    playerData.setPortalCooldown(
-                        portal.getName(), Integer.parseInt(argData[0]) * 1000);
-                } catch (NumberFormatException e) {
-                    infoLogger.warning(
-                        "Cooldown tag failed to set cooldown for portal: "
-                        + portal.getName() + " with value: " + argData[0]);
-                }
-            }
+    public void postActivatedParsed(TagTarget target, PlayerContainer player,
+                                    ActivationData activationData,
+                                    Integer cooldown) {
+        if (activationData.hasActivated()
+            && target instanceof AdvancedPortal) {
+            AdvancedPortal portal = (AdvancedPortal) target;
+            playerDataServices.getPlayerData(player).setPortalCooldown(
+                portal.getName(), cooldown);
         }
     }
 
     @Override
-    public boolean activated(TagTarget target, PlayerContainer player,
-                             ActivationData activationData, String[] argData) {
+    public boolean activatedParsed(TagTarget target, PlayerContainer player,
+                                   ActivationData activationData,
+                                   Integer cooldown) {
         return true;
     }
 
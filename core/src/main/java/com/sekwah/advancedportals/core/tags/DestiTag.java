@@ -15,9 +15,9 @@ import com.sekwah.advancedportals.core.util.Lang;
 import com.sekwah.advancedportals.core.warphandler.ActivationData;
 import com.sekwah.advancedportals.core.warphandler.Tag;
 import java.util.List;
-import java.util.Random;
 
-public class DestiTag implements Tag.Activation, Tag.AutoComplete, Tag.Split {
+public class DestiTag
+    implements Tag.TypedActivation<ChoiceArgs>, Tag.AutoComplete, Tag.Split {
     public static String TAG_NAME = "destination";
 
     @Inject
@@ -47,8 +47,6 @@ public class DestiTag implements Tag.Activation, Tag.AutoComplete, Tag.Split {
         return TAG_NAME;
     }
 
-    private final Random random = new Random();
-
     @Override
     public String[] getAliases() {
         return new String[] {"desti"};
@@ -60,12 +58,15 @@ public class DestiTag implements Tag.Activation, Tag.AutoComplete, Tag.Split {
     }
 
     @Override
-    public boolean preActivated(TagTarget target, PlayerContainer player,
-                                ActivationData activeData, String[] argData) {
-        if (argData.length == 0) {
-            return false;
-        }
-        String selectedArg = argData[random.nextInt(argData.length)];
+    public ChoiceArgs parseArgs(String[] argData) {
+        return ChoiceArgs.of(argData);
+    }
+
+    @Override
+    public boolean preActivatedParsed(TagTarget target, PlayerContainer player,
+                                      ActivationData activeData,
+                                      ChoiceArgs args) {
+        String selectedArg = args.pick();
 
         activeData.setMetadata(TAG_NAME, selectedArg);
 
@@ -100,8 +101,9 @@ public class DestiTag implements Tag.Activation, Tag.AutoComplete, Tag.Split {
     }
 
     @Override
-    public void postActivated(TagTarget target, PlayerContainer player,
-                              ActivationData activationData, String[] argData) {
+    public void postActivatedParsed(TagTarget target, PlayerContainer player,
+                                    ActivationData activationData,
+                                    ChoiceArgs args) {
         if (activationData.getMetadata(ProxyTag.TAG_NAME) != null) {
             return;
         }
@@ -116,7 +118,8 @@ public class DestiTag implements Tag.Activation, Tag.AutoComplete, Tag.Split {
                                                      Tag.TagType.DESTINATION);
                 if (activationHandler != null) {
                     activationHandler.postActivated(target, player,
-                                                    activationData, argData);
+                                                    activationData,
+                                                    destiTag.VALUES);
                 }
             }
             String message = activationData.getMetadata(MessageTag.TAG_NAME);
@@ -130,8 +133,9 @@ public class DestiTag implements Tag.Activation, Tag.AutoComplete, Tag.Split {
     }
 
     @Override
-    public boolean activated(TagTarget target, PlayerContainer player,
-                             ActivationData activationData, String[] argData) {
+    public boolean activatedParsed(TagTarget target, PlayerContainer player,
+                                   ActivationData activationData,
+                                   ChoiceArgs args) {
         if (activationData.getMetadata(ProxyTag.TAG_NAME) != null) {
             return true;
         }
@@ -176,7 +180,7 @@ public class DestiTag implements Tag.Activation, Tag.AutoComplete, Tag.Split {
                                                      Tag.TagType.DESTINATION);
                 if (activationHandler != null) {
                     activationHandler.activated(target, player, activationData,
-                                                argData);
+                                                destiTag.VALUES);
                 }
             }
 
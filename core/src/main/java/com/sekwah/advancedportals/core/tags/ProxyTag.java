@@ -3,6 +3,7 @@ package com.sekwah.advancedportals.core.tags;
 import com.google.inject.Inject;
 import com.sekwah.advancedportals.core.ProxyMessages;
 import com.sekwah.advancedportals.core.connector.containers.PlayerContainer;
+import com.sekwah.advancedportals.core.metrics.Metrics;
 import com.sekwah.advancedportals.core.network.Packet;
 import com.sekwah.advancedportals.core.network.ProxyTransferDestiPacket;
 import com.sekwah.advancedportals.core.network.ProxyTransferPacket;
@@ -11,18 +12,19 @@ import com.sekwah.advancedportals.core.repository.ConfigRepository;
 import com.sekwah.advancedportals.core.util.Lang;
 import com.sekwah.advancedportals.core.warphandler.ActivationData;
 import com.sekwah.advancedportals.core.warphandler.Tag;
-import java.util.Random;
 
-public class ProxyTag implements Tag.Activation, Tag.OrderPriority, Tag.Split {
+public class ProxyTag implements Tag.TypedActivation<ChoiceArgs>,
+                                 Tag.OrderPriority, Tag.Split {
     @Inject
     ConfigRepository configRepository;
 
+    @Inject
+    private Metrics metrics;
+
     public static String TAG_NAME = "proxy";
 
     private final TagType[] tagTypes = new TagType[] {TagType.PORTAL};
 
-    private final Random random = new Random();
-
     @Override
     public TagType[] getTagTypes() {
         return tagTypes;
@@ -44,28 +46,35 @@ public class ProxyTag implements Tag.Activation, Tag.OrderPriority, Tag.Split {
     }
 
     @Override
-    public boolean preActivated(TagTarget target, PlayerContainer player,
-                                ActivationData activeData, String[] argData) {
-        String selectedArg = argData[random.nextInt(argData.length)];
-        activeData.setMetadata(TAG_NAME, selectedArg);
+    public ChoiceArgs parseArgs(String[] argData) {
+        return ChoiceArgs.of(argData);
+    }
+
+    @Override
+    public boolean preActivatedParsed(TagTarget target, PlayerContainer player,
+                                      ActivationData activeData,
+                                      ChoiceArgs args) {
+        activeData.setMetadata(TAG_NAME, args.pick());
         return true;
     }
 
     @Override
-    public void postActivated(TagTarget target, PlayerContainer player,
-                              ActivationData activationData, String[] argData) {
+    public void postActivatedParsed(TagTarget target, PlayerContainer player,
+                                    ActivationData activationData,
+                                    ChoiceArgs args) {
     }
 
     @Override
-    public boolean activated(TagTarget target, PlayerContainer player,
-                             ActivationData activeData, String[] argData) {
+    public boolean activatedParsed(TagTarget target, PlayerContainer player,
+                                   ActivationData activeData,
+                                   ChoiceArgs args) {
         if (!this.configRepository.getEnableProxySupport()) {
             player.sendMessage(Lang.getNegativePrefix()
                                + Lang.translate("tag.proxy.notenabled"));
             return false;
         }
 
-        String selectedArg = argData[random.nextInt(argData.length)];
+        String selectedArg = args.pick();
 
         String desti = activeData.getMetadata(DestiTag.TAG_NAME);
 
@@ -76,6 +85,7 @@ public class ProxyTag implements Tag.Activation, Tag.OrderPriority, Tag.Split {
             packet = new ProxyTransferDestiPacket(selectedArg, desti);
         }
         player.sendPacket(ProxyMessages.CHANNEL_NAME, packet.encode());
+        metrics.getProxyMessagesSent().increment();
         activeData.setWarpStatus(ActivationData.WarpedStatus.WARPED);
         return true;
     }
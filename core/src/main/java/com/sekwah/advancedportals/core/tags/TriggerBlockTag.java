@@ -6,7 +6,11 @@ import com.sekwah.advancedportals.core.connector.containers.ServerContainer;
 import com.sekwah.advancedportals.core.registry.TagTarget;
 import com.sekwah.advancedportals.core.util.Lang;
 import com.sekwah.advancedportals.core.warphandler.Tag;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class TriggerBlockTag
@@ -18,6 +22,12 @@ public class TriggerBlockTag
 
     private final TagType[] tagTypes = new TagType[] {TagType.PORTAL};
 
+    /**
+     * Built on first use as the server container is only injected after
+     * construction, read from any region thread.
+     */
+    private volatile Set<String> validMaterials;
+
     @Override
     public TagType[] getTagTypes() {
         return tagTypes;
@@ -75,7 +85,15 @@ public class TriggerBlockTag
     }
 
     private boolean isValidMaterial(String material) {
-        return serverContainer.getAllTriggerBlocks().stream().anyMatch(
-            validMaterial -> validMaterial.equalsIgnoreCase(material));
+        Set<String> materials = validMaterials;
+        if (materials == null) {
+            materials = new HashSet<>();
+            for (String validMaterial : serverContainer.getAllTriggerBlocks()) {
+                materials.add(validMaterial.toUpperCase(Locale.ROOT));
+            }
+            materials = Collections.unmodifiableSet(materials);
+            validMaterials = materials;
+        }
+        return materials.contains(material.toUpperCase(Locale.ROOT));
     }
 }
@@ -0,0 +1,101 @@
+package com.sekwah.advancedportals.core.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DecoderException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads back data written by {@link FriendlyDataOutput}.
+ */
+public class FriendlyDataInput {
+    private final ByteBuf dataInput;
+
+    public FriendlyDataInput(byte[] bytes) {
+        dataInput = Unpooled.wrappedBuffer(bytes);
+    }
+
+    public boolean readBoolean() {
+        return dataInput.readBoolean();
+    }
+
+    public byte readByte() {
+        return dataInput.readByte();
+    }
+
+    public short readShort() {
+        return dataInput.readShort();
+    }
+
+    public int readInt() {
+        return dataInput.readInt();
+    }
+
+    public long readLong() {
+        return dataInput.readLong();
+    }
+
+    public float readFloat() {
+        return dataInput.readFloat();
+    }
+
+    public double readDouble() {
+        return dataInput.readDouble();
+    }
+
+    public String readUtf() {
+        return this.readUtf(32767);
+    }
+
+    public String readUtf(int maxLength) {
+        int length = this.readVarInt();
+        int maxBytes = maxLength * 3;
+        if (length < 0 || length > maxBytes) {
+            throw new DecoderException("String too big (was " + length
+                                       + " bytes encoded, max " + maxBytes
+                                       + ")");
+        }
+        if (length > dataInput.readableBytes()) {
+            throw new DecoderException("String longer than the remaining "
+                                       + "data (" + length + " bytes)");
+        }
+        byte[] bytes = new byte[length];
+        dataInput.readBytes(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public String[] readUtfArray() {
+        int length = this.readVarInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > dataInput.readableBytes()) {
+            throw new DecoderException("Array longer than the remaining data ("
+                                       + length + " entries)");
+        }
+        String[] values = new String[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = this.readUtf();
+        }
+        return values;
+    }
+
+    public int readVarInt() {
+        int value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            if (shift >= 35) {
+                throw new DecoderException("VarInt too big");
+            }
+            current = this.readByte();
+            value |= (current & 127) << shift;
+            shift += 7;
+        } while ((current & 128) != 0);
+        return value;
+    }
+
+    public boolean isReadable() {
+        return dataInput.isReadable();
+    }
+}
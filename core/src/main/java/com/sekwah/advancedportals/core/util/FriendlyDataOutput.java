@@ -67,6 +67,21 @@ public class FriendlyDataOutput {
         }
     }
 
+    /**
+     * Writes a nullable array of strings, see
+     * {@link FriendlyDataInput#readUtfArray()}.
+     */
+    public void writeUtfArray(String[] values) {
+        if (values == null) {
+            this.writeVarInt(0);
+            return;
+        }
+        this.writeVarInt(values.length + 1);
+        for (String value : values) {
+            this.writeUtf(value);
+        }
+    }
+
     public void writeVarInt(int p_130131_) {
         while ((p_130131_ & -128) != 0) {
             this.writeByte(p_130131_ & 127 | 128);
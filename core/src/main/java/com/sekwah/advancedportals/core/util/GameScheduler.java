@@ -1,89 +1,292 @@
 package com.sekwah.advancedportals.core.util;
 
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import java.util.ArrayList;
-import java.util.Iterator;
+import com.sekwah.advancedportals.core.repository.ConfigRepository;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * For all delayed and repeating tasks.
+ *
+ * <p>Tasks are kept in a hierarchical timing wheel so scheduling, cancelling
+ * and each tick only touch the tasks that are actually due. Tasks can be
+ * scheduled and cancelled from any thread, they are picked up on the next
+ * {@link #tick()} which must only ever be called from one thread at a time.
  */
 @Singleton
 public final class GameScheduler {
-    private final ArrayList<DelayedGameTickEvent> newTickEvents =
-        new ArrayList<>();
-    private final ArrayList<DelayedGameTickEvent> delayedTickEvents =
-        new ArrayList<>();
+    private static final int SLOT_BITS = 6;
+
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private static final int LEVELS = 4;
+
+    /**
+     * Anything further away is parked in the top level and placed properly
+     * once it gets closer.
+     */
+    private static final long MAX_DELAY = 1L << (SLOT_BITS * LEVELS);
+
+    @Inject
+    private ConfigRepository configRepository;
+
+    @Inject
+    private InfoLogger infoLogger;
+
+    /**
+     * Tasks waiting to be added to the wheel on the next tick.
+     */
+    private final Queue<ScheduledTask> pendingTasks =
+        new ConcurrentLinkedQueue<>();
+
+    private final Map<String, Set<ScheduledTask>> tasksByName =
+        new ConcurrentHashMap<>();
+
+    // Only touched from tick()
+    private final ScheduledTask[][] heads = new ScheduledTask[LEVELS][SLOTS];
+    private final ScheduledTask[][] tails = new ScheduledTask[LEVELS][SLOTS];
+
+    /**
+     * Due tasks that didn't fit in a previous tick's budget, run first.
+     */
+    private final ArrayDeque<ScheduledTask> deferredTasks = new ArrayDeque<>();
+
+    private long currentTick;
 
     public void tick() {
-        this.delayedTickEvents.addAll(this.newTickEvents);
-        this.newTickEvents.clear();
-        Iterator<DelayedGameTickEvent> tickEventIterator =
-            this.delayedTickEvents.iterator();
-        while (tickEventIterator.hasNext()) {
-            DelayedGameTickEvent event = tickEventIterator.next();
-            event.tick();
-            if (event.shouldRun()) {
-                event.run();
-                if (!(event instanceof DelayedGameIntervalEvent))
-                    tickEventIterator.remove();
+        long tick = ++this.currentTick;
+
+        ScheduledTask task;
+        while ((task = this.pendingTasks.poll()) != null) {
+            if (!task.isCancelled()) {
+                task.dueTick = tick - 1 + Math.max(task.delay, 1);
+                insert(task);
+            }
+        }
+
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((tick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                cascade(level, slot(tick, level));
             }
         }
+
+        int budgetMillis = configRepository.getSchedulerTickBudgetMillis();
+        long deadline =
+            budgetMillis > 0 ? System.nanoTime() + budgetMillis * 1000000L : 0;
+        boolean ranAny = false;
+
+        while ((task = this.deferredTasks.peek()) != null) {
+            if (ranAny && overBudget(deadline)) {
+                break;
+            }
+            this.deferredTasks.poll();
+            ranAny |= run(task, tick);
+        }
+
+        int slot = slot(tick, 0);
+        task = this.heads[0][slot];
+        this.heads[0][slot] = null;
+        this.tails[0][slot] = null;
+        while (task != null) {
+            ScheduledTask next = task.next;
+            task.next = null;
+            if (ranAny && overBudget(deadline)) {
+                this.deferredTasks.add(task);
+            } else {
+                ranAny |= run(task, tick);
+            }
+            task = next;
+        }
     }
 
-    public void delayedTickEvent(String name, Runnable consumer,
-                                 int tickDelay) {
-        this.newTickEvents.add(
-            new DelayedGameTickEvent(name, consumer, tickDelay));
+    /**
+     * @param tickDelay ticks until the task runs, anything below 1 runs on the
+     *     next tick
+     */
+    public ScheduledTask delayedTickEvent(String name, Runnable consumer,
+                                          int tickDelay) {
+        return schedule(new ScheduledTask(name, consumer, tickDelay, 0));
     }
 
-    public void intervalTickEvent(String name, Runnable consumer, int tickDelay,
-                                  int interval) {
-        this.newTickEvents.add(
-            new DelayedGameIntervalEvent(name, consumer, tickDelay, interval));
+    /**
+     * @param interval ticks between each run after the first
+     */
+    public ScheduledTask intervalTickEvent(String name, Runnable consumer,
+                                           int tickDelay, int interval) {
+        return schedule(new ScheduledTask(name, consumer, tickDelay,
+                                          Math.max(interval, 1)));
+    }
+
+    /**
+     * Cancels every task scheduled under the name.
+     *
+     * @return if there were any to cancel
+     */
+    public boolean cancel(String name) {
+        Set<ScheduledTask> tasks = this.tasksByName.get(name);
+        if (tasks == null) {
+            return false;
+        }
+        boolean cancelled = false;
+        for (ScheduledTask task : tasks) {
+            cancelled |= task.cancel();
+        }
+        return cancelled;
     }
 
     public void clearAllEvents() {
-        this.newTickEvents.clear();
-        this.delayedTickEvents.clear();
+        for (Set<ScheduledTask> tasks : this.tasksByName.values()) {
+            for (ScheduledTask task : tasks) {
+                task.cancel();
+            }
+        }
     }
 
-    public static class DelayedGameTickEvent {
-        // So we can find it later and remove it if needed
-        public final String name;
-        public final Runnable consumer;
-        public int ticks;
+    private ScheduledTask schedule(ScheduledTask task) {
+        task.scheduler = this;
+        this.tasksByName.compute(task.name, (name, tasks) -> {
+            if (tasks == null) {
+                tasks = ConcurrentHashMap.newKeySet();
+            }
+            tasks.add(task);
+            return tasks;
+        });
+        this.pendingTasks.add(task);
+        return task;
+    }
 
-        public DelayedGameTickEvent(String name, Runnable consumer, int ticks) {
-            this.name = name;
-            this.consumer = consumer;
-            this.ticks = ticks;
-        }
+    private void forget(ScheduledTask task) {
+        this.tasksByName.computeIfPresent(task.name, (name, tasks) -> {
+            tasks.remove(task);
+            return tasks.isEmpty() ? null : tasks;
+        });
+    }
+
+    private static boolean overBudget(long deadline) {
+        return deadline != 0 && System.nanoTime() - deadline >= 0;
+    }
 
-        public void tick() {
-            this.ticks--;
+    private static int slot(long tick, int level) {
+        return (int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK;
+    }
+
+    private void insert(ScheduledTask task) {
+        long delay = Math.max(task.dueTick - this.currentTick, 0);
+        long placedTick = task.dueTick;
+        if (delay >= MAX_DELAY) {
+            delay = MAX_DELAY - 1;
+            placedTick = this.currentTick + delay;
+        }
+        int level = 0;
+        while (delay >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
         }
+        int slot = slot(placedTick, level);
+        if (this.tails[level][slot] == null) {
+            this.heads[level][slot] = task;
+        } else {
+            this.tails[level][slot].next = task;
+        }
+        this.tails[level][slot] = task;
+    }
 
-        public boolean shouldRun() {
-            return this.ticks <= 0;
+    /**
+     * Moves a slot's tasks down to wherever they belong now that they are
+     * closer, dropping any that were cancelled.
+     */
+    private void cascade(int level, int slot) {
+        ScheduledTask task = this.heads[level][slot];
+        this.heads[level][slot] = null;
+        this.tails[level][slot] = null;
+        while (task != null) {
+            ScheduledTask next = task.next;
+            task.next = null;
+            if (!task.isCancelled()) {
+                insert(task);
+            }
+            task = next;
         }
+    }
 
-        public void run() {
-            this.consumer.run();
+    /**
+     * @return if the task actually ran
+     */
+    private boolean run(ScheduledTask task, long tick) {
+        if (task.isCancelled()) {
+            return false;
+        }
+        if (task.interval > 0) {
+            task.dueTick = tick + task.interval;
+            insert(task);
+        } else {
+            task.cancelled.set(true);
+            forget(task);
         }
+        try {
+            task.consumer.run();
+        } catch (RuntimeException e) {
+            // Don't lose the rest of the tick's tasks to one failing
+            infoLogger.error(e);
+        }
+        return true;
     }
 
-    public static class DelayedGameIntervalEvent extends DelayedGameTickEvent {
-        public int interval;
+    /**
+     * Handle for a scheduled task.
+     */
+    public static final class ScheduledTask {
+        // So we can find it later and remove it if needed
+        private final String name;
+
+        private final Runnable consumer;
+
+        private final int delay;
+
+        private final int interval;
+
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        private GameScheduler scheduler;
+
+        // Only touched from tick()
+        private long dueTick;
+        private ScheduledTask next;
 
-        public DelayedGameIntervalEvent(String name, Runnable consumer,
-                                        int ticks, int interval) {
-            super(name, consumer, ticks);
+        private ScheduledTask(String name, Runnable consumer, int delay,
+                              int interval) {
+            this.name = name;
+            this.consumer = consumer;
+            this.delay = delay;
             this.interval = interval;
         }
 
-        public void run() {
-            this.ticks = interval;
-            super.run();
+        /**
+         * Stops the task from running again, safe to call from any thread.
+         *
+         * @return false if it had already finished or been cancelled
+         */
+        public boolean cancel() {
+            if (!this.cancelled.compareAndSet(false, true)) {
+                return false;
+            }
+            this.scheduler.forget(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return this.cancelled.get();
+        }
+
+        public String getName() {
+            return this.name;
         }
     }
 }
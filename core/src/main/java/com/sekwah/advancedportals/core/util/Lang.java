@@ -5,8 +5,10 @@ import com.sekwah.advancedportals.core.serializeddata.DataStorage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 
@@ -19,7 +21,12 @@ import java.util.Scanner;
  */
 public class Lang {
     public static final Lang instance = new Lang();
-    private final HashMap<String, String> languageMap = new HashMap<>();
+    /**
+     * Replaced as a whole on reload so lookups never see a half loaded file.
+     * Entries are already colored and split around their variables.
+     */
+    private volatile Map<String, Template> languageMap =
+        Collections.emptyMap();
 
     private String negativePrefix;
 
@@ -34,10 +41,17 @@ public class Lang {
     public static final String DEFAULT_LANG = "en_GB";
 
     public static void loadLanguage(String fileName) {
+        Map<String, String> newLanguageMap = new HashMap<>();
         if (!DEFAULT_LANG.equals(fileName)) {
-            instance.injectTranslations(DEFAULT_LANG);
+            instance.injectTranslations(DEFAULT_LANG, newLanguageMap);
+        }
+        instance.injectTranslations(fileName, newLanguageMap);
+        Map<String, Template> templates = new HashMap<>();
+        for (Map.Entry<String, String> entry : newLanguageMap.entrySet()) {
+            templates.put(entry.getKey(),
+                          Template.parse(convertColors(entry.getValue())));
         }
-        instance.injectTranslations(fileName);
+        instance.languageMap = templates;
 
         instance.negativePrefix = translate("messageprefix.negative");
         instance.positivePrefix = translate("messageprefix.positive");
@@ -52,32 +66,78 @@ public class Lang {
     }
 
     public static String translate(String s) {
-        if (instance.languageMap.containsKey(s)) {
-            String translation = instance.languageMap.get(s);
-            // noinspection ALL (not sure what the specific warning is for
-            // escaped unicode)
-            translation = convertColors(translation);
-            return translation;
+        Template translation = instance.languageMap.get(s);
+        if (translation != null) {
+            return translation.getText();
         } else {
             return s;
         }
     }
 
+    /**
+     * Turns {@code &c} style codes and {@code &#rrggbb} hex colors into
+     * section sign codes.
+     */
     public static String convertColors(String s) {
-        return s
-            .replaceAll(
-                "&#([0-9a-fA-F])([0-9a-fA-F])([0-9a-fA-F])([0-9a-fA-F])([0-9a-fA-F])([0-9a-fA-F])",
-                "&x&$1&$2&$3&$4&$5&$6")
-            .replaceAll("&([0-9a-fA-Fdwrk-ox#])", "\u00A7$1");
+        StringBuilder builder = null;
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c != '&' || i + 1 >= length) {
+                if (builder != null) {
+                    builder.append(c);
+                }
+                continue;
+            }
+            if (builder == null) {
+                builder = new StringBuilder(length + 16);
+                builder.append(s, 0, i);
+            }
+            char code = s.charAt(i + 1);
+            if (code == '#' && isHexColor(s, i + 2)) {
+                builder.append('\u00A7').append('x');
+                for (int j = i + 2; j < i + 8; j++) {
+                    builder.append('\u00A7').append(s.charAt(j));
+                }
+                i += 7;
+            } else if (isColorCode(code)) {
+                builder.append('\u00A7').append(code);
+                i++;
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder == null ? s : builder.toString();
     }
 
+    private static boolean isHexColor(String s, int start) {
+        if (start + 6 > s.length()) {
+            return false;
+        }
+        for (int i = start; i < start + 6; i++) {
+            if (Character.digit(s.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isColorCode(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f')
+            || (c >= 'A' && c <= 'F') || (c >= 'k' && c <= 'o') || c == 'd'
+            || c == 'w' || c == 'r' || c == 'x' || c == '#';
+    }
+
+    /**
+     * Translates s and fills in {@code %1$s}, {@code %2$s}... with args.
+     */
     public static String translateInsertVariables(String s, Object... args) {
-        String translation = translate(s);
-        for (int i = 1; i <= args.length; i++) {
-            translation = translation.replaceAll("%" + i + "\\$s",
-                                                 args[i - 1].toString());
+        Template translation = instance.languageMap.get(s);
+        if (translation != null) {
+            return translation.render(args);
+        } else {
+            return s;
         }
-        return translation;
     }
 
     public Map<String, String> getLanguageMap(String fileName) {
@@ -139,14 +199,15 @@ public class Lang {
             + repeatedEquals.toString();
     }
 
-    private void injectTranslations(String fileName) {
+    private void injectTranslations(String fileName,
+                                    Map<String, String> languageMap) {
         try {
             URL url = Lang.instance.getClass().getClassLoader().getResource(
                 "lang/" + fileName + ".lang");
             if (url != null) {
                 Map<String, String> initialMap =
                     Lang.parseLang(url.openStream());
-                Lang.instance.languageMap.putAll(initialMap);
+                languageMap.putAll(initialMap);
             } else {
                 this.infoLogger.warning("Could not load " + fileName
                                         + (".lang from within Advanced Portals "
@@ -159,7 +220,7 @@ public class Lang {
         }
 
         Map<String, String> newLangMap = this.getLanguageMap(fileName);
-        Lang.instance.languageMap.putAll(newLangMap);
+        languageMap.putAll(newLangMap);
     }
 
     public static Map<String, String> parseLang(InputStream inputStream) {
@@ -189,4 +250,81 @@ public class Lang {
         }
         return null;
     }
+
+    /**
+     * A translation split into the text between its {@code %n$s} variables.
+     */
+    private static final class Template {
+        private final String text;
+
+        /**
+         * Text around the variables, always one longer than slots.
+         */
+        private final String[] parts;
+
+        private final int[] slots;
+
+        private Template(String text, String[] parts, int[] slots) {
+            this.text = text;
+            this.parts = parts;
+            this.slots = slots;
+        }
+
+        private static Template parse(String text) {
+            List<String> parts = new ArrayList<>();
+            List<Integer> slots = new ArrayList<>();
+            int partStart = 0;
+            int index = text.indexOf('%');
+            while (index >= 0) {
+                int end = index + 1;
+                int slot = 0;
+                while (end < text.length() && end - index <= 9
+                       && Character.isDigit(text.charAt(end))) {
+                    slot = slot * 10 + (text.charAt(end) - '0');
+                    end++;
+                }
+                if (slot > 0 && text.startsWith("$s", end)) {
+                    parts.add(text.substring(partStart, index));
+                    slots.add(slot);
+                    partStart = end + 2;
+                    index = text.indexOf('%', partStart);
+                } else {
+                    index = text.indexOf('%', index + 1);
+                }
+            }
+            parts.add(text.substring(partStart));
+
+            int[] slotArray = new int[slots.size()];
+            for (int i = 0; i < slotArray.length; i++) {
+                slotArray[i] = slots.get(i);
+            }
+            return new Template(text, parts.toArray(new String[0]),
+                                slotArray);
+        }
+
+        private String getText() {
+            return this.text;
+        }
+
+        /**
+         * Variables without a matching arg are left as they are.
+         */
+        private String render(Object[] args) {
+            if (this.slots.length == 0) {
+                return this.text;
+            }
+            StringBuilder builder = new StringBuilder(this.text.length() + 32);
+            builder.append(this.parts[0]);
+            for (int i = 0; i < this.slots.length; i++) {
+                int slot = this.slots[i];
+                if (slot <= args.length) {
+                    builder.append(args[slot - 1]);
+                } else {
+                    builder.append('%').append(slot).append("$s");
+                }
+                builder.append(this.parts[i + 1]);
+            }
+            return builder.toString();
+        }
+    }
 }
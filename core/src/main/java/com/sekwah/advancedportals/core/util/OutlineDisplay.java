@@ -0,0 +1,182 @@
+package com.sekwah.advancedportals.core.util;
+
+import com.google.inject.Singleton;
+import com.sekwah.advancedportals.core.connector.containers.PlayerContainer;
+import com.sekwah.advancedportals.core.serializeddata.BlockLocation;
+import com.sekwah.advancedportals.core.serializeddata.PlayerLocation;
+import java.awt.*;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Outlines that stay visible to a single player until they are removed, so
+ * the show commands don't have to keep redrawing particles.
+ *
+ * <p>Nothing is supported by default. Platforms that can show something
+ * persistent, such as display entities, bind a subclass.
+ */
+@Singleton
+public class OutlineDisplay {
+    /**
+     * @return if outlines can be shown at all, otherwise particles should be
+     *     used.
+     */
+    public boolean isAvailable() {
+        return false;
+    }
+
+    /**
+     * Makes what the player is shown for the group match the outlines,
+     * only spawning or removing the ones that changed. Called from the
+     * thread that owns the player.
+     */
+    public void show(PlayerContainer player, String group,
+                     List<Outline> outlines) {
+    }
+
+    /**
+     * Removes everything shown to the player.
+     */
+    public void playerLeave(PlayerContainer player) {
+    }
+
+    /**
+     * Removes everything shown to anyone.
+     */
+    public void clear() {
+    }
+
+    /**
+     * Compared by value so an outline is only replaced when it moves or
+     * changes.
+     */
+    public static final class Outline {
+        private final String id;
+
+        private final String worldName;
+
+        private final double minX;
+
+        private final double minY;
+
+        private final double minZ;
+
+        private final double maxX;
+
+        private final double maxY;
+
+        private final double maxZ;
+
+        private final String text;
+
+        private final Color color;
+
+        private Outline(String id, String worldName, double minX, double minY,
+                        double minZ, double maxX, double maxY, double maxZ,
+                        String text, Color color) {
+            this.id = id;
+            this.worldName = worldName;
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+            this.text = text;
+            this.color = color;
+        }
+
+        /**
+         * A box around every block between the two corners.
+         */
+        public static Outline box(String id, BlockLocation pos1,
+                                  BlockLocation pos2, Color color) {
+            return new Outline(id, pos1.getWorldName(),
+                               Math.min(pos1.getPosX(), pos2.getPosX()),
+                               Math.min(pos1.getPosY(), pos2.getPosY()),
+                               Math.min(pos1.getPosZ(), pos2.getPosZ()),
+                               Math.max(pos1.getPosX(), pos2.getPosX()) + 1,
+                               Math.max(pos1.getPosY(), pos2.getPosY()) + 1,
+                               Math.max(pos1.getPosZ(), pos2.getPosZ()) + 1,
+                               null, color);
+        }
+
+        /**
+         * Floating text at a location.
+         */
+        public static Outline label(String id, PlayerLocation loc,
+                                    String text, Color color) {
+            return new Outline(id, loc.getWorldName(), loc.getPosX(),
+                               loc.getPosY(), loc.getPosZ(), loc.getPosX(),
+                               loc.getPosY(), loc.getPosZ(), text, color);
+        }
+
+        public String getId() {
+            return this.id;
+        }
+
+        public String getWorldName() {
+            return this.worldName;
+        }
+
+        public double getMinX() {
+            return this.minX;
+        }
+
+        public double getMinY() {
+            return this.minY;
+        }
+
+        public double getMinZ() {
+            return this.minZ;
+        }
+
+        public double getMaxX() {
+            return this.maxX;
+        }
+
+        public double getMaxY() {
+            return this.maxY;
+        }
+
+        public double getMaxZ() {
+            return this.maxZ;
+        }
+
+        /**
+         * @return the text for a label or null for a box.
+         */
+        public String getText() {
+            return this.text;
+        }
+
+        public Color getColor() {
+            return this.color;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Outline)) {
+                return false;
+            }
+            Outline outline = (Outline) o;
+            return this.minX == outline.minX && this.minY == outline.minY
+                && this.minZ == outline.minZ && this.maxX == outline.maxX
+                && this.maxY == outline.maxY && this.maxZ == outline.maxZ
+                && this.id.equals(outline.id)
+                && Objects.equals(this.worldName, outline.worldName)
+                && Objects.equals(this.text, outline.text)
+                && Objects.equals(this.color, outline.color);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.id, this.worldName, this.minX, this.minY,
+                                this.minZ, this.maxX, this.maxY, this.maxZ,
+                                this.text, this.color);
+        }
+    }
+}
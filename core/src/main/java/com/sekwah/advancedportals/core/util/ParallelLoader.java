@@ -0,0 +1,119 @@
+package com.sekwah.advancedportals.core.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Loads a batch of named files on a small, short lived worker pool. Used for
+ * startup and reload where there can be thousands of portal files to parse.
+ */
+public final class ParallelLoader {
+    private static final int MAX_THREADS = 4;
+
+    /**
+     * Roughly how many files each worker should get before it is worth
+     * starting another one.
+     */
+    private static final int FILES_PER_THREAD = 64;
+
+    private ParallelLoader() {
+    }
+
+    /**
+     * @return how many worker threads would be used for this many files
+     */
+    public static int getThreadCount(int fileCount) {
+        int wanted = (fileCount + FILES_PER_THREAD - 1) / FILES_PER_THREAD;
+        int available = Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(MAX_THREADS, Math.min(available, wanted)));
+    }
+
+    /**
+     * Runs the loader for every name, skipping any that return null or throw.
+     *
+     * @return the loaded values keyed by name
+     */
+    public static <T> Map<String, T> loadAll(List<String> names,
+                                             Function<String, T> loader,
+                                             InfoLogger infoLogger) {
+        Map<String, T> loaded = new HashMap<>();
+        int threads = getThreadCount(names.size());
+        if (threads <= 1) {
+            for (String name : names) {
+                T value = loadSafely(name, loader, infoLogger);
+                if (value != null) {
+                    loaded.put(name, value);
+                }
+            }
+            return loaded;
+        }
+
+        AtomicInteger threadId = new AtomicInteger();
+        ExecutorService pool =
+            Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread =
+                    new Thread(runnable, "AdvancedPortals-Loader-"
+                                             + threadId.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        try {
+            List<Future<T>> futures = new ArrayList<>(names.size());
+            for (String name : names) {
+                futures.add(
+                    pool.submit(() -> loadSafely(name, loader, infoLogger)));
+            }
+            for (int i = 0; i < names.size(); i++) {
+                T value = futures.get(i).get();
+                if (value != null) {
+                    loaded.put(names.get(i), value);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            infoLogger.warning("Interrupted while loading files");
+        } catch (ExecutionException e) {
+            infoLogger.warning("Failed to load files: " + e.getMessage());
+        } finally {
+            pool.shutdownNow();
+        }
+        return loaded;
+    }
+
+    private static <T> T loadSafely(String name, Function<String, T> loader,
+                                    InfoLogger infoLogger) {
+        try {
+            return loader.apply(name);
+        } catch (RuntimeException e) {
+            infoLogger.warning("Failed to load " + name + ": "
+                               + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Builds the one line timing summary logged after a load.
+     *
+     * @param typeKey lang key for the plural name of what was loaded
+     * @param unchanged how many were reused from memory or the binary
+     *     snapshot rather than parsed
+     */
+    public static String formatReport(String typeKey, int loaded,
+                                      int unchanged, int files, long bytes,
+                                      int threads, long parseNanos,
+                                      long indexNanos) {
+        return Lang.translateInsertVariables(
+            "logger.loadreport", loaded, Lang.translate(typeKey), unchanged,
+            files, String.format(Locale.ROOT, "%.1f", bytes / 1024D),
+            threads, parseNanos / 1_000_000L, indexNanos / 1_000_000L);
+    }
+}
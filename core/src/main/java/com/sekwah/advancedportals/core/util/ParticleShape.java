@@ -0,0 +1,180 @@
+package com.sekwah.advancedportals.core.util;
+
+import com.sekwah.advancedportals.core.serializeddata.BlockLocation;
+import com.sekwah.advancedportals.core.serializeddata.Vector;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A fixed set of points to draw particles at, worked out once so drawing a
+ * frame doesn't need to do any maths or allocate anything per particle.
+ */
+public final class ParticleShape {
+    /**
+     * Points further than this many blocks from the viewer aren't sent.
+     */
+    public static final double VIEW_DISTANCE = 180;
+
+    public static final double VIEW_DISTANCE_SQ = VIEW_DISTANCE * VIEW_DISTANCE;
+
+    public static final ParticleShape EMPTY = new ParticleShape(new double[0]);
+
+    private final double[] points;
+
+    private ParticleShape(double[] points) {
+        this.points = points;
+    }
+
+    /**
+     * @return the x, y and z of each point one after another, must not be
+     *     modified.
+     */
+    public double[] getPoints() {
+        return this.points;
+    }
+
+    public int size() {
+        return this.points.length / 3;
+    }
+
+    public static ParticleShape line(Vector start, Vector end,
+                                     float particleDensity) {
+        return new Builder().line(start, end, particleDensity).build();
+    }
+
+    /**
+     * The edges of a box between two corners.
+     */
+    public static ParticleShape box(double minX, double minY, double minZ,
+                                    double maxX, double maxY, double maxZ,
+                                    float particleDensity) {
+        return new Builder()
+            .box(minX, minY, minZ, maxX, maxY, maxZ, particleDensity)
+            .build();
+    }
+
+    /**
+     * One point in the centre of each block.
+     */
+    public static ParticleShape blockCentres(List<BlockLocation> blocks) {
+        Builder builder = new Builder();
+        for (BlockLocation block : blocks) {
+            builder.point(block.getPosX() + 0.5, block.getPosY() + 0.5,
+                          block.getPosZ() + 0.5);
+        }
+        return builder.build();
+    }
+
+    public static final class Builder {
+        private double[] points = new double[48];
+
+        private int length;
+
+        public Builder point(double x, double y, double z) {
+            if (this.length + 3 > this.points.length) {
+                this.points =
+                    Arrays.copyOf(this.points, this.points.length * 2);
+            }
+            this.points[this.length++] = x;
+            this.points[this.length++] = y;
+            this.points[this.length++] = z;
+            return this;
+        }
+
+        /**
+         * Points from start towards end, particleDensity blocks apart.
+         */
+        public Builder line(Vector start, Vector end, float particleDensity) {
+            return line(start.getX(), start.getY(), start.getZ(), end.getX(),
+                        end.getY(), end.getZ(), particleDensity);
+        }
+
+        public Builder line(double startX, double startY, double startZ,
+                            double endX, double endY, double endZ,
+                            float particleDensity) {
+            double dirX = endX - startX;
+            double dirY = endY - startY;
+            double dirZ = endZ - startZ;
+            double length = Math.sqrt(dirX * dirX + dirY * dirY + dirZ * dirZ);
+            if (length == 0 || particleDensity <= 0) {
+                return this;
+            }
+            dirX /= length;
+            dirY /= length;
+            dirZ /= length;
+            for (double i = 0; i <= length; i += particleDensity) {
+                point(startX + dirX * i, startY + dirY * i, startZ + dirZ * i);
+            }
+            return this;
+        }
+
+        public Builder box(double minX, double minY, double minZ, double maxX,
+                           double maxY, double maxZ, float particleDensity) {
+            line(minX, maxY, maxZ, maxX, maxY, maxZ, particleDensity);
+            line(minX, minY, minZ, maxX, minY, minZ, particleDensity);
+            line(minX, minY, minZ, minX, maxY, minZ, particleDensity);
+            line(maxX, minY, maxZ, maxX, maxY, maxZ, particleDensity);
+            line(maxX, maxY, minZ, maxX, maxY, maxZ, particleDensity);
+            line(minX, minY, minZ, minX, minY, maxZ, particleDensity);
+            line(maxX, minY, minZ, maxX, maxY, minZ, particleDensity);
+            line(maxX, minY, minZ, maxX, minY, maxZ, particleDensity);
+            line(minX, maxY, minZ, maxX, maxY, minZ, particleDensity);
+            line(minX, maxY, minZ, minX, maxY, maxZ, particleDensity);
+            line(minX, minY, maxZ, maxX, minY, maxZ, particleDensity);
+            line(minX, minY, maxZ, minX, maxY, maxZ, particleDensity);
+            return this;
+        }
+
+        public ParticleShape build() {
+            if (this.length == 0) {
+                return EMPTY;
+            }
+            return new ParticleShape(Arrays.copyOf(this.points, this.length));
+        }
+    }
+
+    /**
+     * Keeps the shape built for each key until what it was built from
+     * changes. Inputs are compared by identity so they should be replaced
+     * rather than modified, as locations are. Keys are held weakly.
+     */
+    public static final class Cache<K> {
+        private final Map<K, Entry> shapes =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+        public ParticleShape get(K key, Object input,
+                                 Supplier<ParticleShape> builder) {
+            return get(key, input, null, builder);
+        }
+
+        public ParticleShape get(K key, Object input, Object secondInput,
+                                 Supplier<ParticleShape> builder) {
+            Entry entry = this.shapes.get(key);
+            if (entry == null || entry.input != input
+                || entry.secondInput != secondInput) {
+                entry = new Entry(input, secondInput, builder.get());
+                this.shapes.put(key, entry);
+            }
+            return entry.shape;
+        }
+
+        private static final class Entry {
+            private final Object input;
+
+            private final Object secondInput;
+
+            private final ParticleShape shape;
+
+            private Entry(Object input, Object secondInput,
+                          ParticleShape shape) {
+                this.input = input;
+                this.secondInput = secondInput;
+                this.shape = shape;
+            }
+        }
+    }
+}
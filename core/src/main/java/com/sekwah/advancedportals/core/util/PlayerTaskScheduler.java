@@ -0,0 +1,179 @@
+package com.sekwah.advancedportals.core.util;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.sekwah.advancedportals.core.connector.containers.PlayerContainer;
+import com.sekwah.advancedportals.core.connector.containers.ServerContainer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * For repeating tasks that do something for each online player.
+ *
+ * <p>By default every player is handled in turn from the {@link GameScheduler}
+ * tick. Platforms that can run work on the thread that owns each player, such
+ * as Folia's entity schedulers, bind a subclass that overrides {@link
+ * #start(PlayerTask)} and {@link #playerJoin(PlayerContainer)}.
+ */
+@Singleton
+public class PlayerTaskScheduler {
+    @Inject
+    protected GameScheduler gameScheduler;
+
+    @Inject
+    protected ServerContainer serverContainer;
+
+    private final Set<PlayerTask> tasks = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param consumer called with each online player, possibly from different
+     *     threads at the same time
+     * @param interval ticks between each run after the first
+     */
+    public PlayerTask intervalPlayerTask(String name,
+                                         Consumer<PlayerContainer> consumer,
+                                         int tickDelay, int interval) {
+        PlayerTask task = new PlayerTask(this, name, consumer,
+                                         Math.max(tickDelay, 1),
+                                         Math.max(interval, 1));
+        this.tasks.add(task);
+        start(task);
+        return task;
+    }
+
+    /**
+     * Cancels every task scheduled under the name.
+     *
+     * @return if there were any to cancel
+     */
+    public boolean cancel(String name) {
+        boolean cancelled = false;
+        for (PlayerTask task : this.tasks) {
+            if (task.getName().equals(name)) {
+                cancelled |= task.cancel();
+            }
+        }
+        return cancelled;
+    }
+
+    public void cancelAll() {
+        for (PlayerTask task : this.tasks) {
+            task.cancel();
+        }
+    }
+
+    /**
+     * Starts running a new task for the players that are online.
+     */
+    protected void start(PlayerTask task) {
+        GameScheduler.ScheduledTask ticking = gameScheduler.intervalTickEvent(
+            task.getName(), () -> {
+                for (PlayerContainer player : serverContainer.getPlayers()) {
+                    task.run(player);
+                }
+            }, task.getTickDelay(), task.getInterval());
+        task.onCancel(ticking::cancel);
+    }
+
+    /**
+     * Called when a player joins so they can be picked up by running tasks.
+     */
+    public void playerJoin(PlayerContainer player) {
+    }
+
+    /**
+     * @return the tasks that haven't been cancelled.
+     */
+    protected Collection<PlayerTask> getTasks() {
+        return Collections.unmodifiableSet(this.tasks);
+    }
+
+    /**
+     * Handle for a task scheduled for every player.
+     */
+    public static final class PlayerTask {
+        private final PlayerTaskScheduler scheduler;
+
+        private final String name;
+
+        private final Consumer<PlayerContainer> consumer;
+
+        private final int tickDelay;
+
+        private final int interval;
+
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        private final Set<Runnable> cancelListeners =
+            ConcurrentHashMap.newKeySet();
+
+        private PlayerTask(PlayerTaskScheduler scheduler, String name,
+                           Consumer<PlayerContainer> consumer, int tickDelay,
+                           int interval) {
+            this.scheduler = scheduler;
+            this.name = name;
+            this.consumer = consumer;
+            this.tickDelay = tickDelay;
+            this.interval = interval;
+        }
+
+        /**
+         * Runs the task for one player unless it has been cancelled.
+         */
+        public void run(PlayerContainer player) {
+            if (!this.cancelled.get()) {
+                this.consumer.accept(player);
+            }
+        }
+
+        /**
+         * Stops the task for every player, safe to call from any thread.
+         *
+         * @return false if it had already been cancelled
+         */
+        public boolean cancel() {
+            if (!this.cancelled.compareAndSet(false, true)) {
+                return false;
+            }
+            this.scheduler.tasks.remove(this);
+            // Whoever removes a listener runs it, so each only runs once
+            for (Runnable listener : this.cancelListeners) {
+                if (this.cancelListeners.remove(listener)) {
+                    listener.run();
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Lets schedulers stop whatever is running the task once it's
+         * cancelled. Runs straight away if it already has been.
+         */
+        public void onCancel(Runnable listener) {
+            this.cancelListeners.add(listener);
+            if (this.cancelled.get() && this.cancelListeners.remove(listener)) {
+                listener.run();
+            }
+        }
+
+        public boolean isCancelled() {
+            return this.cancelled.get();
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public int getTickDelay() {
+            return this.tickDelay;
+        }
+
+        public int getInterval() {
+            return this.interval;
+        }
+    }
+}
@@ -1,8 +1,7 @@
 package com.sekwah.advancedportals.core.warphandler;
 
 import com.sekwah.advancedportals.core.serializeddata.PlayerLocation;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * Created by on 30/07/2016.
@@ -18,7 +17,15 @@ public class ActivationData {
 
     private TriggerType triggerType;
 
-    private Map<String, String> metadata = new HashMap<>();
+    /**
+     * Only a few tags ever set metadata, so it is kept in small parallel
+     * arrays that are only allocated once something is stored.
+     */
+    private String[] metadataKeys;
+
+    private String[] metadataValues;
+
+    private int metadataSize;
 
     public WarpedStatus getWarped() {
         return this.warpStatus;
@@ -42,11 +49,33 @@ public class ActivationData {
     }
 
     public String getMetadata(String key) {
-        return this.metadata.get(key);
+        for (int i = 0; i < this.metadataSize; i++) {
+            if (this.metadataKeys[i].equals(key)) {
+                return this.metadataValues[i];
+            }
+        }
+        return null;
     }
 
     public void setMetadata(String key, String value) {
-        this.metadata.put(key, value);
+        for (int i = 0; i < this.metadataSize; i++) {
+            if (this.metadataKeys[i].equals(key)) {
+                this.metadataValues[i] = value;
+                return;
+            }
+        }
+        if (this.metadataKeys == null) {
+            this.metadataKeys = new String[4];
+            this.metadataValues = new String[4];
+        } else if (this.metadataSize == this.metadataKeys.length) {
+            this.metadataKeys =
+                Arrays.copyOf(this.metadataKeys, this.metadataSize * 2);
+            this.metadataValues =
+                Arrays.copyOf(this.metadataValues, this.metadataSize * 2);
+        }
+        this.metadataKeys[this.metadataSize] = key;
+        this.metadataValues[this.metadataSize] = value;
+        this.metadataSize++;
     }
 
     /**
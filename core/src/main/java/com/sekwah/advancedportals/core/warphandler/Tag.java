@@ -159,6 +159,88 @@ public interface Tag {
                           ActivationData activationData, String[] argData);
     }
 
+    /**
+     * For activation tags that would rather parse their arguments once than
+     * on every activation. Portals parse the args when they compile their
+     * activation handlers and pass the result to the parsed methods below.
+     *
+     * <p>The raw {@link Activation} methods parse the args themselves and
+     * delegate to the parsed ones. If they can't be parsed the warp is
+     * denied through {@link #preActivatedInvalid} and the tag does nothing
+     * else.
+     *
+     * @param <T> an immutable holder for the parsed args
+     */
+    interface TypedActivation<T> extends Activation {
+        /**
+         * @return the parsed args or null if they are not valid
+         */
+        @Nullable
+        T parseArgs(String[] argData);
+
+        /**
+         * Called in place of {@link #preActivatedParsed} when the args
+         * could not be parsed.
+         *
+         * @return If the tag has allowed the warp, by default it hasn't
+         */
+        default boolean preActivatedInvalid(TagTarget target,
+                                            PlayerContainer player,
+                                            ActivationData activeData,
+                                            String[] argData) {
+            return false;
+        }
+
+        @Override
+        default boolean preActivated(TagTarget target, PlayerContainer player,
+                                     ActivationData activeData,
+                                     String[] argData) {
+            T args = parseArgsOrNull(argData);
+            return args == null
+                ? preActivatedInvalid(target, player, activeData, argData)
+                : preActivatedParsed(target, player, activeData, args);
+        }
+
+        @Override
+        default void postActivated(TagTarget target, PlayerContainer player,
+                                   ActivationData activationData,
+                                   String[] argData) {
+            T args = parseArgsOrNull(argData);
+            if (args != null) {
+                postActivatedParsed(target, player, activationData, args);
+            }
+        }
+
+        @Override
+        default boolean activated(TagTarget target, PlayerContainer player,
+                                  ActivationData activationData,
+                                  String[] argData) {
+            T args = parseArgsOrNull(argData);
+            return args != null
+                && activatedParsed(target, player, activationData, args);
+        }
+
+        private T parseArgsOrNull(String[] argData) {
+            if (argData == null) {
+                return null;
+            }
+            try {
+                return parseArgs(argData);
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        boolean preActivatedParsed(TagTarget target, PlayerContainer player,
+                                   ActivationData activeData, T args);
+
+        void postActivatedParsed(TagTarget target, PlayerContainer player,
+                                 ActivationData activationData, T args);
+
+        boolean activatedParsed(TagTarget target, PlayerContainer player,
+                                ActivationData activationData, T args);
+    }
+
     /**
      * Triggers when a tag is added or removed from a portal or destination
      */
@@ -8,6 +8,7 @@ import com.sekwah.advancedportals.legacyspigot.connector.container.LegacySpigotE
 import com.sekwah.advancedportals.shadowed.inject.Inject;
 import com.sekwah.advancedportals.legacyspigot.connector.container.LegacySpigotPlayerContainer;
 import com.sekwah.advancedportals.legacyspigot.utils.ContainerHelpers;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
@@ -35,6 +36,22 @@ public class Listeners implements Listener {
     private ConfigRepository configRepository;
 
     // Entity and portal events
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            coreListeners.playerPreLogin(event.getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLogin(PlayerLoginEvent event) {
+        // Leave the data alone if someone with the same id is still online
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED
+                && Bukkit.getPlayer(event.getPlayer().getUniqueId()) == null) {
+            coreListeners.playerLoginDenied(event.getPlayer().getUniqueId());
+        }
+    }
+
     @EventHandler
     public void onJoinEvent(PlayerJoinEvent event) {
         coreListeners.playerJoin(new LegacySpigotPlayerContainer(event.getPlayer()));
@@ -48,7 +65,14 @@ public class Listeners implements Listener {
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onMoveEvent(PlayerMoveEvent event) {
         Location to = event.getTo();
-        coreListeners.playerMove(new LegacySpigotPlayerContainer(event.getPlayer()),
+        Player player = event.getPlayer();
+        // The legacy containers report a fixed player height of 1.5
+        if (!coreListeners.shouldCheckPlayerMove(
+                player.getUniqueId(), to.getWorld().getName(), to.getBlockX(),
+                to.getBlockY(), to.getBlockZ(), to.getBlockY() + 1)) {
+            return;
+        }
+        coreListeners.playerMove(new LegacySpigotPlayerContainer(player),
                                  ContainerHelpers.toPlayerLocation(to));
     }
 
@@ -167,6 +191,8 @@ public class Listeners implements Listener {
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockFromTo(BlockFromToEvent event) {
         if (!configRepository.getStopWaterFlow()) {
+            portalServices.blockChanged(ContainerHelpers.toBlockLocation(
+                event.getToBlock().getLocation()));
             return;
         }
         if (!coreListeners.blockPlace(null,
@@ -201,10 +227,15 @@ public class Listeners implements Listener {
 
     @EventHandler(priority = EventPriority.HIGH)
     public void onExplosion(EntityExplodeEvent event) {
-        if (!configRepository.getPortalProtection())
+        List<Block> blockList = event.blockList();
+        if (!configRepository.getPortalProtection()) {
+            for (Block block : blockList) {
+                portalServices.blockChanged(
+                    ContainerHelpers.toBlockLocation(block.getLocation()));
+            }
             return;
+        }
 
-        List<Block> blockList = event.blockList();
         for (int i = 0; i < blockList.size(); i++) {
             Block block = blockList.get(i);
             if (portalServices.inPortalRegionProtected(
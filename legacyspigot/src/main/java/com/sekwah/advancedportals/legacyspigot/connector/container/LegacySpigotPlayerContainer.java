@@ -6,6 +6,7 @@ import com.sekwah.advancedportals.core.connector.containers.PlayerContainer;
 import com.sekwah.advancedportals.core.connector.containers.ServerContainer;
 import com.sekwah.advancedportals.core.serializeddata.PlayerLocation;
 import com.sekwah.advancedportals.core.serializeddata.Vector;
+import com.sekwah.advancedportals.core.util.ParticleShape;
 import com.sekwah.advancedportals.shadowed.inject.Inject;
 import net.md_5.bungee.api.ChatMessageType;
 import net.md_5.bungee.api.chat.TextComponent;
@@ -122,10 +123,9 @@ public class LegacySpigotPlayerContainer
                                  double ySpread, double zSpread, int count,
                                  Color color) {
         // Check distance to player
-        if (this.player.getLocation().distance(
-                new Location(this.player.getWorld(), position.getX(),
-                             position.getY(), position.getZ()))
-            > 180) {
+        if (distanceSq(this.player.getLocation(), position.getX(),
+                       position.getY(), position.getZ())
+            > ParticleShape.VIEW_DISTANCE_SQ) {
             return;
         }
 
@@ -137,5 +137,46 @@ public class LegacySpigotPlayerContainer
 
         this.player.spigot().playEffect(new Location(player.getWorld(), position.getX(), position.getY(), position.getZ()), Effect.COLOURED_DUST, 0,  0,color.getRed() / 255.0f, color.getGreen() / 255.0f, color.getBlue() / 255.0f, 1, 0, 64);
     }
+
+    /**
+     * Culls against a single player location and reuses one location for
+     * every particle in the frame. The colour goes in the offsets so the
+     * spread can't be used here either.
+     */
+    @Override
+    public void drawShape(ParticleShape shape, double spread, Color color) {
+        double[] points = shape.getPoints();
+        if (points.length == 0) {
+            return;
+        }
+        Location playerLocation = this.player.getLocation();
+        Location location = new Location(this.player.getWorld(), 0, 0, 0);
+
+        // If red is 0 it seems to treat it as fully red too
+        float red = Math.max(color.getRed(), 1) / 255.0f;
+        float green = color.getGreen() / 255.0f;
+        float blue = color.getBlue() / 255.0f;
+
+        for (int i = 0; i < points.length; i += 3) {
+            if (distanceSq(playerLocation, points[i], points[i + 1],
+                           points[i + 2])
+                > ParticleShape.VIEW_DISTANCE_SQ) {
+                continue;
+            }
+            location.setX(points[i]);
+            location.setY(points[i + 1]);
+            location.setZ(points[i + 2]);
+            this.player.spigot().playEffect(location, Effect.COLOURED_DUST, 0,
+                                            0, red, green, blue, 1, 0, 64);
+        }
+    }
+
+    private static double distanceSq(Location location, double x, double y,
+                                     double z) {
+        double dx = location.getX() - x;
+        double dy = location.getY() - y;
+        double dz = location.getZ() - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
 }
 
@@ -15,6 +15,8 @@ import org.bukkit.permissions.PermissionAttachment;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -35,6 +37,11 @@ public class LegacySpigotServerContainer implements ServerContainer {
             .map(Enum::name)
             .collect(Collectors.toList());
 
+    private final Map<String, String> materialNameLookup =
+        fullTriggerBlockList.stream().collect(Collectors.toMap(
+            name -> name.toUpperCase(Locale.ROOT), name -> name,
+            (first, second) -> first));
+
     public LegacySpigotServerContainer(Server server) {
         this.server = server;
     }
@@ -158,10 +165,6 @@ public class LegacySpigotServerContainer implements ServerContainer {
 
     @Override
     public String matchMaterialName(String materialName) {
-        return Arrays.stream(Material.values())
-            .map(Enum::name)
-            .filter(name -> name.equalsIgnoreCase(materialName))
-            .findFirst()
-            .orElse(null);
+        return materialNameLookup.get(materialName.toUpperCase(Locale.ROOT));
     }
 }
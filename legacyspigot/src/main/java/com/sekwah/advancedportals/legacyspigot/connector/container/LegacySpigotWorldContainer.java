@@ -3,6 +3,7 @@ package com.sekwah.advancedportals.legacyspigot.connector.container;
 import com.sekwah.advancedportals.core.connector.containers.WorldContainer;
 import com.sekwah.advancedportals.core.data.BlockAxis;
 import com.sekwah.advancedportals.core.portal.AdvancedPortal;
+import com.sekwah.advancedportals.core.registry.MaterialRegistry;
 import com.sekwah.advancedportals.core.serializeddata.BlockLocation;
 import org.bukkit.Material;
 import org.bukkit.World;
@@ -11,6 +12,20 @@ import org.bukkit.World;
 public class LegacySpigotWorldContainer implements WorldContainer {
     private final World world;
 
+    /**
+     * Material ordinal to {@link MaterialRegistry} id.
+     */
+    private static final int[] MATERIAL_IDS;
+
+    static {
+        Material[] materials = Material.values();
+        MATERIAL_IDS = new int[materials.length];
+        for (Material material : materials) {
+            MATERIAL_IDS[material.ordinal()] =
+                MaterialRegistry.getId(material.name());
+        }
+    }
+
     public LegacySpigotWorldContainer(World world) {
         this.world = world;
     }
@@ -32,6 +47,16 @@ public class LegacySpigotWorldContainer implements WorldContainer {
             .toString();
     }
 
+    @Override
+    public int getBlockId(BlockLocation location) {
+        return MATERIAL_IDS[this.world
+                                .getBlockAt(location.getPosX(),
+                                            location.getPosY(),
+                                            location.getPosZ())
+                                .getType()
+                                .ordinal()];
+    }
+
     @Override
     public void disableBeacon(BlockLocation location) {
     }
@@ -10,6 +10,8 @@ import com.sekwah.advancedportals.core.serializeddata.BlockLocation;
 import com.sekwah.advancedportals.core.services.DestinationServices;
 import com.sekwah.advancedportals.core.services.PortalServices;
 import com.sekwah.advancedportals.core.util.GameScheduler;
+import com.sekwah.advancedportals.core.util.OutlineDisplay;
+import com.sekwah.advancedportals.core.util.PlayerTaskScheduler;
 import com.sekwah.advancedportals.spigot.commands.subcommands.portal.ImportPortalSubCommand;
 import com.sekwah.advancedportals.spigot.connector.command.SpigotCommandRegister;
 import com.sekwah.advancedportals.spigot.connector.container.SpigotServerContainer;
@@ -87,6 +89,18 @@ public class AdvancedPortalsPlugin extends JavaPlugin {
         // Provide SpigotCommandRegister to the CommandRegister
         module.addInstanceBinding(CommandRegister.class, new SpigotCommandRegister(this));
 
+        // Where entity schedulers exist (Folia), run per player tasks on the player's own region thread
+        FoliaPlayerTaskScheduler playerTaskScheduler = FoliaPlayerTaskScheduler.create(this);
+        if (playerTaskScheduler != null) {
+            module.addInstanceBinding(PlayerTaskScheduler.class, playerTaskScheduler);
+        }
+
+        // Where display entities exist, /portal show can use them instead of redrawing particles
+        DisplayEntityOutlines outlineDisplay = DisplayEntityOutlines.create(this);
+        if (outlineDisplay != null) {
+            module.addInstanceBinding(OutlineDisplay.class, outlineDisplay);
+        }
+
         // Grab the Guice injector
         Injector injector = module.getInjector();
 
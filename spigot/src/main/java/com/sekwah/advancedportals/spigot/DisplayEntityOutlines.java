@@ -0,0 +1,375 @@
+package com.sekwah.advancedportals.spigot;
+
+import com.sekwah.advancedportals.core.connector.containers.PlayerContainer;
+import com.sekwah.advancedportals.core.util.OutlineDisplay;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import org.bukkit.Bukkit;
+import org.bukkit.Color;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Shows outlines as block and text display entities that only the player they
+ * belong to can see. They are spawned once when an outline comes into view and
+ * removed when it leaves, rather than being redrawn every few ticks.
+ *
+ * <p>Display entities are newer than the Spigot API we compile against so they
+ * are accessed through reflection. On Folia entities are spawned and removed on
+ * the region that owns their location.
+ */
+public class DisplayEntityOutlines extends OutlineDisplay {
+    private static final String REGION_SCHEDULER =
+            "io.papermc.paper.threadedregions.scheduler.RegionScheduler";
+    private static final String ENTITY_SCHEDULER =
+            "io.papermc.paper.threadedregions.scheduler.EntityScheduler";
+
+    /**
+     * Grows boxes slightly so their faces don't flicker against the blocks they
+     * surround.
+     */
+    private static final float BOX_PADDING = 0.01f;
+
+    private final Plugin plugin;
+
+    private final Reflection reflection;
+
+    /**
+     * What each player is currently shown, keyed by group and outline id.
+     */
+    private final Map<UUID, Map<String, Shown>> shown = new ConcurrentHashMap<>();
+
+    private DisplayEntityOutlines(Plugin plugin, Reflection reflection) {
+        this.plugin = plugin;
+        this.reflection = reflection;
+    }
+
+    /**
+     * @return the outlines or null if display entities aren't available.
+     */
+    public static DisplayEntityOutlines create(Plugin plugin) {
+        try {
+            return new DisplayEntityOutlines(plugin, new Reflection());
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public void show(PlayerContainer player, String group, List<Outline> outlines) {
+        Map<String, Outline> wanted = new HashMap<>();
+        for (Outline outline : outlines) {
+            wanted.put(group + ":" + outline.getId(), outline);
+        }
+
+        Map<String, Shown> playerShown = this.shown.get(player.getUUID());
+        if (playerShown == null) {
+            if (wanted.isEmpty()) {
+                return;
+            }
+            playerShown = this.shown.computeIfAbsent(player.getUUID(), key -> new ConcurrentHashMap<>());
+        }
+
+        String prefix = group + ":";
+        Iterator<Map.Entry<String, Shown>> iterator = playerShown.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Shown> entry = iterator.next();
+            if (entry.getKey().startsWith(prefix)
+                    && !entry.getValue().outline.equals(wanted.get(entry.getKey()))) {
+                iterator.remove();
+                remove(entry.getValue());
+            }
+        }
+
+        if (wanted.isEmpty()) {
+            return;
+        }
+        Player bukkitPlayer = Bukkit.getPlayer(player.getUUID());
+        if (bukkitPlayer == null) {
+            return;
+        }
+        for (Map.Entry<String, Outline> entry : wanted.entrySet()) {
+            if (!playerShown.containsKey(entry.getKey())) {
+                Shown shownOutline = new Shown(entry.getValue());
+                playerShown.put(entry.getKey(), shownOutline);
+                spawn(bukkitPlayer, shownOutline);
+            }
+        }
+    }
+
+    @Override
+    public void playerLeave(PlayerContainer player) {
+        Map<String, Shown> playerShown = this.shown.remove(player.getUUID());
+        if (playerShown != null) {
+            playerShown.values().forEach(this::remove);
+        }
+    }
+
+    @Override
+    public void clear() {
+        // Nothing can be scheduled once disabled, on Folia the entities are
+        // left to go away with their chunks as they aren't persistent
+        for (UUID uuid : this.shown.keySet()) {
+            Map<String, Shown> playerShown = this.shown.remove(uuid);
+            if (playerShown == null) {
+                continue;
+            }
+            for (Shown shownOutline : playerShown.values()) {
+                shownOutline.removed = true;
+                Entity entity = shownOutline.entity;
+                if (entity != null && this.reflection.regionExecute == null) {
+                    entity.remove();
+                }
+            }
+        }
+    }
+
+    private void spawn(Player player, Shown shownOutline) {
+        Location location = shownOutline.getLocation();
+        if (location == null) {
+            return;
+        }
+        runAt(location, () -> {
+            if (shownOutline.removed) {
+                return;
+            }
+            Entity entity;
+            try {
+                entity = this.reflection.spawn(location, shownOutline.outline);
+            } catch (ReflectiveOperationException e) {
+                this.plugin.getLogger().warning("Could not spawn outline: " + e);
+                return;
+            }
+            shownOutline.entity = entity;
+            if (shownOutline.removed) {
+                // Removed while it was being spawned
+                entity.remove();
+                return;
+            }
+            runFor(player, () -> {
+                try {
+                    this.reflection.showEntity.invoke(player, this.plugin, entity);
+                } catch (IllegalAccessException | InvocationTargetException e) {
+                    this.plugin.getLogger().warning("Could not show outline: " + e);
+                }
+            });
+        });
+    }
+
+    private void remove(Shown shownOutline) {
+        shownOutline.removed = true;
+        Location location = shownOutline.getLocation();
+        if (location == null) {
+            return;
+        }
+        runAt(location, () -> {
+            Entity entity = shownOutline.entity;
+            if (entity != null) {
+                entity.remove();
+            }
+        });
+    }
+
+    /**
+     * Runs on the thread that owns the location.
+     */
+    private void runAt(Location location, Runnable runnable) {
+        if (this.reflection.regionExecute == null) {
+            runnable.run();
+            return;
+        }
+        try {
+            this.reflection.regionExecute.invoke(this.reflection.getRegionScheduler.invoke(null),
+                    this.plugin, location, runnable);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            this.plugin.getLogger().warning("Could not schedule outline change: " + e);
+        }
+    }
+
+    private void runFor(Player player, Runnable runnable) {
+        if (this.reflection.entityExecute == null) {
+            runnable.run();
+            return;
+        }
+        try {
+            this.reflection.entityExecute.invoke(this.reflection.getEntityScheduler.invoke(player),
+                    this.plugin, runnable, null, 1L);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            this.plugin.getLogger().warning("Could not schedule outline change: " + e);
+        }
+    }
+
+    private static final class Shown {
+        private final Outline outline;
+
+        private volatile Entity entity;
+
+        private volatile boolean removed;
+
+        private Shown(Outline outline) {
+            this.outline = outline;
+        }
+
+        /**
+         * @return where the entity is spawned or null if the world is gone.
+         */
+        private Location getLocation() {
+            World world = Bukkit.getWorld(this.outline.getWorldName());
+            if (world == null) {
+                return null;
+            }
+            if (this.outline.getText() != null) {
+                return new Location(world, this.outline.getMinX(), this.outline.getMinY(),
+                        this.outline.getMinZ());
+            }
+            return new Location(world, this.outline.getMinX() - BOX_PADDING / 2,
+                    this.outline.getMinY() - BOX_PADDING / 2, this.outline.getMinZ() - BOX_PADDING / 2);
+        }
+    }
+
+    /**
+     * The display entity API, looked up once.
+     */
+    private static final class Reflection {
+        private final Class<?> blockDisplay;
+
+        private final Class<?> textDisplay;
+
+        private final Method spawn;
+
+        private final Method setVisibleByDefault;
+
+        private final Method showEntity;
+
+        private final Method setBlock;
+
+        private final Method setTransformation;
+
+        private final Method setGlowColorOverride;
+
+        private final Method setBillboard;
+
+        private final Method setText;
+
+        private final Constructor<?> transformation;
+
+        private final Constructor<?> vector3f;
+
+        private final Constructor<?> axisAngle4f;
+
+        private final Object billboardCenter;
+
+        private final BlockData boxBlock;
+
+        private Method getRegionScheduler;
+
+        private Method regionExecute;
+
+        private Method getEntityScheduler;
+
+        private Method entityExecute;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Reflection() throws ReflectiveOperationException {
+            this.blockDisplay = Class.forName("org.bukkit.entity.BlockDisplay");
+            this.textDisplay = Class.forName("org.bukkit.entity.TextDisplay");
+            Class<?> display = Class.forName("org.bukkit.entity.Display");
+            Class<?> billboard = Class.forName("org.bukkit.entity.Display$Billboard");
+            Class<?> transformationClass = Class.forName("org.bukkit.util.Transformation");
+            Class<?> vector3fClass = Class.forName("org.joml.Vector3f");
+            Class<?> axisAngle4fClass = Class.forName("org.joml.AxisAngle4f");
+
+            this.spawn = World.class.getMethod("spawn", Location.class, Class.class, Consumer.class);
+            this.setVisibleByDefault = Entity.class.getMethod("setVisibleByDefault", boolean.class);
+            this.showEntity = Player.class.getMethod("showEntity", Plugin.class, Entity.class);
+            this.setBlock = this.blockDisplay.getMethod("setBlock", BlockData.class);
+            this.setTransformation = display.getMethod("setTransformation", transformationClass);
+            this.setGlowColorOverride = display.getMethod("setGlowColorOverride", Color.class);
+            this.setBillboard = display.getMethod("setBillboard", billboard);
+            this.setText = this.textDisplay.getMethod("setText", String.class);
+            this.transformation = transformationClass.getConstructor(vector3fClass, axisAngle4fClass,
+                    vector3fClass, axisAngle4fClass);
+            this.vector3f = vector3fClass.getConstructor(float.class, float.class, float.class);
+            this.axisAngle4f = axisAngle4fClass.getConstructor();
+            this.billboardCenter = Enum.valueOf((Class) billboard, "CENTER");
+            this.boxBlock = Material.LIGHT_GRAY_STAINED_GLASS.createBlockData();
+
+            try {
+                // Paper has the same schedulers, only Folia needs them
+                Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+                this.getRegionScheduler = Bukkit.class.getMethod("getRegionScheduler");
+                this.regionExecute = Class.forName(REGION_SCHEDULER)
+                        .getMethod("execute", Plugin.class, Location.class, Runnable.class);
+                this.getEntityScheduler = Entity.class.getMethod("getScheduler");
+                this.entityExecute = Class.forName(ENTITY_SCHEDULER)
+                        .getMethod("execute", Plugin.class, Runnable.class, Runnable.class, long.class);
+            } catch (ClassNotFoundException | NoSuchMethodException e) {
+                // Not Folia, everything already runs on the main thread
+                this.regionExecute = null;
+                this.entityExecute = null;
+            }
+        }
+
+        /**
+         * Spawns the entity hidden from everyone, so it can then be shown to
+         * just the one player.
+         */
+        private Entity spawn(Location location, Outline outline) throws ReflectiveOperationException {
+            boolean isLabel = outline.getText() != null;
+            Consumer<Entity> setup = entity -> {
+                try {
+                    this.setVisibleByDefault.invoke(entity, false);
+                    entity.setPersistent(false);
+                    if (isLabel) {
+                        this.setText.invoke(entity, outline.getText());
+                        this.setBillboard.invoke(entity, this.billboardCenter);
+                    } else {
+                        this.setBlock.invoke(entity, this.boxBlock);
+                        Object noRotation = this.axisAngle4f.newInstance();
+                        this.setTransformation.invoke(entity, this.transformation.newInstance(
+                                this.vector3f.newInstance(0f, 0f, 0f), noRotation,
+                                this.vector3f.newInstance(
+                                        (float) (outline.getMaxX() - outline.getMinX()) + BOX_PADDING,
+                                        (float) (outline.getMaxY() - outline.getMinY()) + BOX_PADDING,
+                                        (float) (outline.getMaxZ() - outline.getMinZ()) + BOX_PADDING),
+                                noRotation));
+                        java.awt.Color color = outline.getColor();
+                        this.setGlowColorOverride.invoke(entity,
+                                Color.fromRGB(color.getRed(), color.getGreen(), color.getBlue()));
+                        entity.setGlowing(true);
+                    }
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+            try {
+                return (Entity) this.spawn.invoke(location.getWorld(), location,
+                        isLabel ? this.textDisplay : this.blockDisplay, setup);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof IllegalStateException
+                        && e.getCause().getCause() instanceof ReflectiveOperationException) {
+                    throw (ReflectiveOperationException) e.getCause().getCause();
+                }
+                throw e;
+            }
+        }
+    }
+}
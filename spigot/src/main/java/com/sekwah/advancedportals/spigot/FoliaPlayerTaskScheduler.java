@@ -0,0 +1,135 @@
+package com.sekwah.advancedportals.spigot;
+
+import com.sekwah.advancedportals.core.connector.containers.PlayerContainer;
+import com.sekwah.advancedportals.core.util.PlayerTaskScheduler;
+import com.sekwah.advancedportals.spigot.connector.container.SpigotPlayerContainer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Runs per player tasks on each player's own entity scheduler, so on Folia the
+ * work is spread over the region threads that own the players instead of all
+ * happening on the global tick.
+ *
+ * <p>The scheduler API is newer than the Spigot API we compile against so it
+ * is accessed through reflection.
+ */
+public class FoliaPlayerTaskScheduler extends PlayerTaskScheduler {
+    private static final String ENTITY_SCHEDULER =
+            "io.papermc.paper.threadedregions.scheduler.EntityScheduler";
+    private static final String SCHEDULED_TASK =
+            "io.papermc.paper.threadedregions.scheduler.ScheduledTask";
+
+    private final Plugin plugin;
+
+    private final Method getScheduler;
+
+    private final Method runAtFixedRate;
+
+    private final Method cancel;
+
+    /**
+     * Entity ids each task is currently running for, so a task is never
+     * scheduled twice for the same player.
+     */
+    private final Map<PlayerTask, Set<Integer>> running = new ConcurrentHashMap<>();
+
+    private FoliaPlayerTaskScheduler(Plugin plugin, Method getScheduler,
+                                     Method runAtFixedRate, Method cancel) {
+        this.plugin = plugin;
+        this.getScheduler = getScheduler;
+        this.runAtFixedRate = runAtFixedRate;
+        this.cancel = cancel;
+    }
+
+    /**
+     * @return the scheduler or null if entity schedulers aren't available.
+     */
+    public static FoliaPlayerTaskScheduler create(Plugin plugin) {
+        try {
+            Class<?> entityScheduler = Class.forName(ENTITY_SCHEDULER);
+            Class<?> scheduledTask = Class.forName(SCHEDULED_TASK);
+            return new FoliaPlayerTaskScheduler(
+                    plugin,
+                    Entity.class.getMethod("getScheduler"),
+                    entityScheduler.getMethod("runAtFixedRate", Plugin.class,
+                            Consumer.class, Runnable.class, long.class,
+                            long.class),
+                    scheduledTask.getMethod("cancel"));
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    @Override
+    protected void start(PlayerTask task) {
+        Set<Integer> players = ConcurrentHashMap.newKeySet();
+        this.running.put(task, players);
+        task.onCancel(() -> this.running.remove(task));
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            schedule(task, players, player);
+        }
+    }
+
+    @Override
+    public void playerJoin(PlayerContainer player) {
+        Player bukkitPlayer = Bukkit.getPlayer(player.getUUID());
+        if (bukkitPlayer == null) {
+            return;
+        }
+        for (PlayerTask task : getTasks()) {
+            Set<Integer> players = this.running.get(task);
+            if (players != null) {
+                schedule(task, players, bukkitPlayer);
+            }
+        }
+    }
+
+    private void schedule(PlayerTask task, Set<Integer> players,
+                          Player player) {
+        int entityId = player.getEntityId();
+        if (!players.add(entityId)) {
+            return;
+        }
+        SpigotPlayerContainer container = new SpigotPlayerContainer(player);
+        Consumer<Object> run = scheduledTask -> {
+            if (task.isCancelled()) {
+                cancel(scheduledTask);
+            } else {
+                task.run(container);
+            }
+        };
+        // Called once the player is removed, e.g. when they log out
+        Runnable retired = () -> players.remove(entityId);
+        try {
+            Object scheduler = this.getScheduler.invoke(player);
+            Object scheduledTask = this.runAtFixedRate.invoke(
+                    scheduler, this.plugin, run, retired,
+                    (long) task.getTickDelay(), (long) task.getInterval());
+            if (scheduledTask == null) {
+                // The player was already removed
+                players.remove(entityId);
+            }
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            players.remove(entityId);
+            this.plugin.getLogger().warning("Could not schedule "
+                    + task.getName() + " for " + player.getName() + ": " + e);
+        }
+    }
+
+    private void cancel(Object scheduledTask) {
+        try {
+            this.cancel.invoke(scheduledTask);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            this.plugin.getLogger().warning("Could not cancel task: " + e);
+        }
+    }
+}
@@ -85,6 +85,22 @@ public class Listeners implements Listener {
     // Player / Entity events
     // ------------------------------------------------------------------------
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            coreListeners.playerPreLogin(event.getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLogin(PlayerLoginEvent event) {
+        // Leave the data alone if someone with the same id is still online
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED
+                && Bukkit.getPlayer(event.getPlayer().getUniqueId()) == null) {
+            coreListeners.playerLoginDenied(event.getPlayer().getUniqueId());
+        }
+    }
+
     @EventHandler
     public void onJoinEvent(PlayerJoinEvent event) {
         coreListeners.playerJoin(new SpigotPlayerContainer(event.getPlayer()));
@@ -99,7 +115,14 @@ public class Listeners implements Listener {
     public void onMoveEvent(PlayerMoveEvent event) {
         Location to = event.getTo();
         if (to == null) return;
-        coreListeners.playerMove(new SpigotPlayerContainer(event.getPlayer()),
+        Player player = event.getPlayer();
+        if (!coreListeners.shouldCheckPlayerMove(
+                player.getUniqueId(), to.getWorld().getName(), to.getBlockX(),
+                to.getBlockY(), to.getBlockZ(),
+                to.getBlockY() + (int) Math.floor(player.getHeight()))) {
+            return;
+        }
+        coreListeners.playerMove(new SpigotPlayerContainer(player),
                 ContainerHelpers.toPlayerLocation(to));
     }
 
@@ -223,6 +246,8 @@ public class Listeners implements Listener {
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockFromTo(BlockFromToEvent event) {
         if (!configRepository.getStopWaterFlow()) {
+            portalServices.blockChanged(ContainerHelpers.toBlockLocation(
+                event.getToBlock().getLocation()));
             return;
         }
         boolean fromAllowed = coreListeners.blockPlace(
@@ -263,8 +288,14 @@ public class Listeners implements Listener {
 
     @EventHandler(priority = EventPriority.HIGH)
     public void onExplosion(EntityExplodeEvent event) {
-        if (!configRepository.getPortalProtection()) return;
         List<Block> blockList = event.blockList();
+        if (!configRepository.getPortalProtection()) {
+            for (Block block : blockList) {
+                portalServices.blockChanged(
+                    ContainerHelpers.toBlockLocation(block.getLocation()));
+            }
+            return;
+        }
         for (int i = 0; i < blockList.size(); i++) {
             Block block = blockList.get(i);
             if (portalServices.inPortalRegionProtected(
@@ -7,6 +7,7 @@ import com.sekwah.advancedportals.core.connector.containers.ServerContainer;
 import com.sekwah.advancedportals.core.serializeddata.BlockLocation;
 import com.sekwah.advancedportals.core.serializeddata.PlayerLocation;
 import com.sekwah.advancedportals.core.serializeddata.Vector;
+import com.sekwah.advancedportals.core.util.ParticleShape;
 import com.sekwah.advancedportals.spigot.AdvancedPortalsPlugin;
 import net.kyori.adventure.text.Component;
 import net.md_5.bungee.api.ChatMessageType;
@@ -130,24 +131,60 @@ public class SpigotPlayerContainer extends SpigotEntityContainer implements Play
     @Override
     public void spawnColoredDust(Vector position, double xSpread, double ySpread, double zSpread, int count, java.awt.Color color) {
         // If the player is too far away, skip
-        if (this.player.getLocation().distance(
-                new Location(this.player.getWorld(), position.getX(), position.getY(), position.getZ())
-            ) > 180) {
+        Location location = this.player.getLocation();
+        if (distanceSq(location, position.getX(), position.getY(), position.getZ()) > ParticleShape.VIEW_DISTANCE_SQ) {
             return;
         }
 
-        // Convert AWT color to Bukkit color
-        Particle.DustOptions dustOptions = new Particle.DustOptions(
-            Color.fromRGB(color.getRed(), color.getGreen(), color.getBlue()),
-            1.5f
-        );
         this.player.spawnParticle(
             Particle.SQUID_INK,
             position.getX(), position.getY(), position.getZ(),
             count,
             xSpread, ySpread, zSpread,
             count, // speed or extra param
-            dustOptions
+            toDustOptions(color)
+        );
+    }
+
+    /**
+     * Culls against a single player location and shares the dust options
+     * across the whole frame.
+     */
+    @Override
+    public void drawShape(ParticleShape shape, double spread, java.awt.Color color) {
+        double[] points = shape.getPoints();
+        if (points.length == 0) {
+            return;
+        }
+        Location location = this.player.getLocation();
+        Particle.DustOptions dustOptions = toDustOptions(color);
+        for (int i = 0; i < points.length; i += 3) {
+            if (distanceSq(location, points[i], points[i + 1], points[i + 2]) > ParticleShape.VIEW_DISTANCE_SQ) {
+                continue;
+            }
+            this.player.spawnParticle(
+                Particle.SQUID_INK,
+                points[i], points[i + 1], points[i + 2],
+                1,
+                spread, spread, spread,
+                1,
+                dustOptions
+            );
+        }
+    }
+
+    private static double distanceSq(Location location, double x, double y, double z) {
+        double dx = location.getX() - x;
+        double dy = location.getY() - y;
+        double dz = location.getZ() - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static Particle.DustOptions toDustOptions(java.awt.Color color) {
+        // Convert AWT color to Bukkit color
+        return new Particle.DustOptions(
+            Color.fromRGB(color.getRed(), color.getGreen(), color.getBlue()),
+            1.5f
         );
     }
 }
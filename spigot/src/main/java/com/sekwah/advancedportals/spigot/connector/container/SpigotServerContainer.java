@@ -9,6 +9,8 @@ import javax.inject.Inject;
 import com.sekwah.advancedportals.spigot.AdvancedPortalsPlugin;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import org.bukkit.Material;
@@ -36,6 +38,11 @@ public class SpigotServerContainer implements ServerContainer {
             .map(Enum::name)
             .collect(Collectors.toList());
 
+    private final Map<String, String> materialNameLookup =
+        fullTriggerBlockList.stream().collect(Collectors.toMap(
+            name -> name.toUpperCase(Locale.ROOT), name -> name,
+            (first, second) -> first));
+
     public SpigotServerContainer(Server server) {
         this.server = server;
     }
@@ -159,10 +166,6 @@ public class SpigotServerContainer implements ServerContainer {
 
     @Override
     public String matchMaterialName(String materialName) {
-        return Arrays.stream(Material.values())
-            .map(Enum::name)
-            .filter(name -> name.equalsIgnoreCase(materialName))
-            .findFirst()
-            .orElse(null);
+        return materialNameLookup.get(materialName.toUpperCase(Locale.ROOT));
     }
 }
@@ -3,6 +3,7 @@ package com.sekwah.advancedportals.spigot.connector.container;
 import com.sekwah.advancedportals.core.connector.containers.WorldContainer;
 import com.sekwah.advancedportals.core.data.BlockAxis;
 import com.sekwah.advancedportals.core.portal.AdvancedPortal;
+import com.sekwah.advancedportals.core.registry.MaterialRegistry;
 import com.sekwah.advancedportals.core.serializeddata.BlockLocation;
 import java.awt.*;
 import java.lang.reflect.Method;
@@ -19,6 +20,20 @@ import org.bukkit.block.data.Orientable;
 public class SpigotWorldContainer implements WorldContainer {
     private final World world;
 
+    /**
+     * Material ordinal to {@link MaterialRegistry} id.
+     */
+    private static final int[] MATERIAL_IDS;
+
+    static {
+        Material[] materials = Material.values();
+        MATERIAL_IDS = new int[materials.length];
+        for (Material material : materials) {
+            MATERIAL_IDS[material.ordinal()] =
+                MaterialRegistry.getId(material.name());
+        }
+    }
+
     // True if setAge(long) is present on EndGateway, discovered at runtime.
     private static boolean endGatewaySetAgeExists;
     // Keep a cached reflection Method reference if you want:
@@ -57,6 +72,16 @@ public class SpigotWorldContainer implements WorldContainer {
             .toString();
     }
 
+    @Override
+    public int getBlockId(BlockLocation location) {
+        return MATERIAL_IDS[this.world
+                                .getBlockAt(location.getPosX(),
+                                            location.getPosY(),
+                                            location.getPosZ())
+                                .getType()
+                                .ordinal()];
+    }
+
     @Override
     public BlockAxis getBlockAxis(BlockLocation location) {
         Block block = world.getBlockAt(location.getPosX(), location.getPosY(),
@@ -11,7 +11,8 @@ import java.util.List;
 import net.milkbowl.vault.economy.Economy;
 import org.bukkit.plugin.RegisteredServiceProvider;
 
-public class CostTag implements Tag.Activation, Tag.AutoComplete, Tag.Creation {
+public class CostTag implements Tag.TypedActivation<Double>, Tag.AutoComplete,
+                                Tag.Creation {
     private final Economy economy;
 
     public CostTag(Economy economy) {
@@ -19,17 +20,29 @@ public class CostTag implements Tag.Activation, Tag.AutoComplete, Tag.Creation {
     }
 
     @Override
-    public boolean preActivated(TagTarget target, PlayerContainer player,
-                                ActivationData activeData, String[] argData) {
-        double cost;
+    public Double parseArgs(String[] argData) {
+        if (argData.length == 0) {
+            return null;
+        }
         try {
-            cost = Double.parseDouble(argData[0]);
+            return Double.parseDouble(argData[0]);
         } catch (NumberFormatException e) {
-            player.sendMessage(Lang.getNegativePrefix()
-                               + Lang.translate("tag.cost.error"));
-            return false;
+            return null;
         }
+    }
 
+    @Override
+    public boolean preActivatedInvalid(TagTarget target, PlayerContainer player,
+                                       ActivationData activeData,
+                                       String[] argData) {
+        player.sendMessage(Lang.getNegativePrefix()
+                           + Lang.translate("tag.cost.error"));
+        return false;
+    }
+
+    @Override
+    public boolean preActivatedParsed(TagTarget target, PlayerContainer player,
+                                      ActivationData activeData, Double cost) {
         if (!(player instanceof SpigotPlayerContainer))
             return false;
 
@@ -46,15 +59,17 @@ public class CostTag implements Tag.Activation, Tag.AutoComplete, Tag.Creation {
     }
 
     @Override
-    public void postActivated(TagTarget target, PlayerContainer player,
-                              ActivationData activationData, String[] argData) {
+    public void postActivatedParsed(TagTarget target, PlayerContainer player,
+                                    ActivationData activationData,
+                                    Double cost) {
         economy.withdrawPlayer(((SpigotPlayerContainer) player).getPlayer(),
-                               Double.parseDouble(argData[0]));
+                               cost);
     }
 
     @Override
-    public boolean activated(TagTarget target, PlayerContainer player,
-                             ActivationData activationData, String[] argData) {
+    public boolean activatedParsed(TagTarget target, PlayerContainer player,
+                                   ActivationData activationData,
+                                   Double cost) {
         return true;
     }
 